@@ -0,0 +1,123 @@
+package com.QA.demo.benchmark;
+
+import com.QA.demo.config.UserJsonModule;
+import com.QA.demo.controller.UserController;
+import com.QA.demo.model.User;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response writing through {@link MappingJackson2HttpMessageConverter}, as Spring MVC does it:
+ * the stock reflective {@code ObjectMapper} against the one with {@link UserJsonModule} and the
+ * shared buffer pool from {@code JsonConfig}.
+ *
+ * <p>The body goes to a counting sink, so with {@code -prof gc} the bytes/op
+ * ({@code gc.alloc.rate.norm}) are the serializer's own allocations, not a growing output buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class UserJsonConverterBenchmark {
+
+    private static final Type USER_LIST = ResolvableType.forClassWithGenerics(List.class, User.class).getType();
+
+    @Param({"default", "tuned"})
+    private String serializer;
+
+    private MappingJackson2HttpMessageConverter converter;
+    private CountingOutputMessage message;
+    private UserController.ErrorResponse error;
+
+    // Separate state so the list size parameter does not multiply the error response benchmark
+    @State(Scope.Benchmark)
+    public static class UserList {
+
+        @Param({"50", "1000"})
+        private int listSize;
+
+        private List<User> users;
+
+        @Setup
+        public void setUp() {
+            users = new ArrayList<>(listSize);
+            for (int i = 1; i <= listSize; i++) {
+                User user = new User((long) i, "Bench User " + i, "bench" + i + "@test.com", 18 + i % 60);
+                user.setVersion(0L);
+                users.add(user);
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = serializer.equals("tuned")
+                ? new ObjectMapper(JsonFactory.builder().recyclerPool(JsonRecyclerPools.sharedBoundedPool()).build())
+                        .registerModule(new UserJsonModule())
+                : new ObjectMapper();
+        converter = new MappingJackson2HttpMessageConverter(objectMapper);
+        message = new CountingOutputMessage();
+        error = new UserController.ErrorResponse("Email already exists");
+    }
+
+    @Benchmark
+    public long writeUserList(UserList list) throws IOException {
+        message.reset();
+        converter.write(list.users, USER_LIST, MediaType.APPLICATION_JSON, message);
+        return message.bytes;
+    }
+
+    @Benchmark
+    public long writeErrorResponse() throws IOException {
+        message.reset();
+        converter.write(error, UserController.ErrorResponse.class, MediaType.APPLICATION_JSON, message);
+        return message.bytes;
+    }
+
+    // Discards the body but counts it, so the result cannot be optimized away
+    static final class CountingOutputMessage extends OutputStream implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        long bytes;
+
+        void reset() {
+            headers.clear();
+            bytes = 0;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return this;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.QA.demo.benchmark;
+
+import com.QA.demo.DemoApplication;
+import com.QA.demo.model.User;
+import com.QA.demo.repository.UserRepository;
+import com.QA.demo.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups through the real Spring context: the cached {@code UserService.getUserById} path and
+ * the uncached repository queries behind it, against H2 through Hibernate or against the
+ * in-memory storage engine ({@code in-memory} profile).
+ *
+ * <p>Run with several thread counts ({@code -t 1}, {@code -t 4}, ...) to compare read scaling:
+ * every uncached H2 lookup borrows a pooled connection, an in-memory lookup is a lock-free map read.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserLookupBenchmark {
+
+    @Param({"10000"})
+    private int userCount;
+
+    @Param({"h2", "in-memory"})
+    private String storage;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DemoApplication.class);
+        if (storage.equals("in-memory")) {
+            builder.profiles("in-memory");
+        }
+        context = builder
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchdb;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+        if (storage.equals("in-memory")) {
+            // Ids are handed out from 1, matching the SQL seed below
+            List<User> users = new ArrayList<>(userCount);
+            for (int i = 1; i <= userCount; i++) {
+                users.add(new User(null, "Bench User " + i, "bench" + i + "@test.com", 18 + i % 60));
+            }
+            for (int from = 0; from < userCount; from += UserService.MAX_BATCH_SIZE) {
+                userService.createUsers(users.subList(from, Math.min(from + UserService.MAX_BATCH_SIZE, userCount)));
+            }
+        } else {
+            context.getBean(JdbcTemplate.class).update("INSERT INTO users (id, name, email, age) " +
+                    "SELECT X, CONCAT('Bench User ', X), CONCAT('bench', X, '@test.com'), 18 + MOD(X, 60) " +
+                    "FROM SYSTEM_RANGE(1, ?)", userCount);
+        }
+        // Fill the cache so getUserById measures hits rather than the warm-up's misses
+        for (long id = 1; id <= userCount; id++) {
+            userService.getUserById(id);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    // Cache hits: every user was loaded during setup and the cache is larger than the data set
+    @Benchmark
+    public Optional<User> getUserById() {
+        return userService.getUserById(randomId());
+    }
+
+    // Uncached primary key lookup
+    @Benchmark
+    public Optional<User> findById() {
+        return userRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public boolean existsByEmail() {
+        return userRepository.existsByEmail(randomEmail());
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userRepository.findByEmail(randomEmail());
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, userCount + 1);
+    }
+
+    private String randomEmail() {
+        return "bench" + randomId() + "@test.com";
+    }
+}
@@ -0,0 +1,70 @@
+package com.QA.demo.benchmark;
+
+import com.QA.demo.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a single {@link User} and of {@code List<User>} at the sizes the API
+ * returns: one page (50), a full page (1000) and the legacy unpaged list (10000).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserSerializationBenchmark {
+
+    private ObjectWriter userWriter;
+    private ObjectWriter listWriter;
+    private User user;
+
+    // Separate state so the list size parameter does not multiply the single-user benchmark
+    @State(Scope.Benchmark)
+    public static class UserList {
+
+        @Param({"50", "1000", "10000"})
+        private int listSize;
+
+        private List<User> users;
+
+        @Setup
+        public void setUp() {
+            users = new ArrayList<>(listSize);
+            for (int i = 1; i <= listSize; i++) {
+                users.add(newUser(i));
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        userWriter = objectMapper.writerFor(User.class);
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, User.class));
+        user = newUser(1);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws JsonProcessingException {
+        return userWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeUserList(UserList list) throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(list.users);
+    }
+
+    private static User newUser(int i) {
+        User user = new User((long) i, "Bench User " + i, "bench" + i + "@test.com", 18 + i % 60);
+        user.setVersion(0L);
+        return user;
+    }
+}
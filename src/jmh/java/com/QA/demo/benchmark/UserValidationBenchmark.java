@@ -0,0 +1,93 @@
+package com.QA.demo.benchmark;
+
+import com.QA.demo.model.User;
+import com.QA.demo.service.InvalidRequestException;
+import com.QA.demo.service.UserValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The validation step of {@code UserService.createUser}, for a valid user and for each rejection.
+ * Rejections throw, so these also show what exception construction costs per request.
+ *
+ * <p>{@code stackDepth} runs each call that many frames down, as it would be under Tomcat, Spring
+ * MVC and the service proxies. {@code invalidEmailWithStackTrace} throws the plain
+ * {@code RuntimeException} validation used to throw, for comparison with the stackless
+ * {@code InvalidRequestException} thrown now. Reported as time per call; run with {@code -prof gc}
+ * to see the bytes each exception allocates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserValidationBenchmark {
+
+    // 150 is about how deep a request thread is when it reaches UserService
+    @Param({"1", "150"})
+    public int stackDepth;
+
+    private User valid;
+    private User invalidEmail;
+    private User invalidAge;
+
+    @Setup
+    public void setUp() {
+        valid = new User(null, "Bench User", "bench@example.com", 30);
+        invalidEmail = new User(null, "Bench User", "not-an-email", 30);
+        invalidAge = new User(null, "Bench User", "bench@example.com", -1);
+    }
+
+    @Benchmark
+    public Object validUser() {
+        return atDepth(stackDepth, () -> {
+            UserValidator.validate(valid);
+            return valid;
+        });
+    }
+
+    @Benchmark
+    public Object invalidEmail() {
+        return atDepth(stackDepth, () -> {
+            try {
+                UserValidator.validate(invalidEmail);
+                return null;
+            } catch (InvalidRequestException e) {
+                return e;
+            }
+        });
+    }
+
+    @Benchmark
+    public Object invalidAge() {
+        return atDepth(stackDepth, () -> {
+            try {
+                UserValidator.validate(invalidAge);
+                return null;
+            } catch (InvalidRequestException e) {
+                return e;
+            }
+        });
+    }
+
+    @Benchmark
+    public Object invalidEmailWithStackTrace() {
+        return atDepth(stackDepth, () -> {
+            try {
+                if (!invalidEmail.getEmail().contains("@")) {
+                    throw new RuntimeException("Invalid email format");
+                }
+                return null;
+            } catch (RuntimeException e) {
+                return e;
+            }
+        });
+    }
+
+    private static Object atDepth(int frames, Supplier<Object> call) {
+        return frames <= 1 ? call.get() : atDepth(frames - 1, call);
+    }
+}
@@ -0,0 +1,38 @@
+package com.QA.demo;
+
+import com.QA.demo.model.ImportReport;
+import com.QA.demo.service.UserImportPipeline;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Command line entry point for bulk imports:
+ * {@code java -cp demo.jar -Dloader.main=com.QA.demo.UserImportApplication org.springframework.boot.loader.launch.PropertiesLauncher users.ndjson}.
+ * Extra arguments are passed to Spring. Point it at a persistent database and override
+ * {@code spring.jpa.hibernate.ddl-auto}, otherwise the default create-drop schema is discarded on exit.
+ * Re-running the same file after a crash resumes from the last committed chunk.
+ */
+public class UserImportApplication {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: UserImportApplication <users.ndjson> [--spring.property=value ...]");
+			System.exit(2);
+		}
+
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+				.web(WebApplicationType.NONE)
+				.run(Arrays.copyOfRange(args, 1, args.length));
+
+		ImportReport report = context.getBean(UserImportPipeline.class).importFile(Path.of(args[0]));
+		System.out.println(report);
+
+		System.exit(SpringApplication.exit(context));
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.QA.demo.config;
+
+import com.QA.demo.controller.UserController;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Adaptive concurrency limit in front of {@code /api/users}, enabled with
+ * {@code user.limiter.enabled=true}.
+ *
+ * <p>Reads (GET, HEAD) and writes have separate {@link GradientLimit}s, so a write slowdown does
+ * not shed reads and the other way round. A request over its limit is answered at once with 503
+ * and {@code Retry-After}. It still holds its Tomcat worker for that short response, but it never
+ * reaches the controller, the service or the database. When the database or the pool slows down,
+ * the limit shrinks, and the excess is shed instead of queueing behind the requests in flight.
+ *
+ * <p>{@code GET /api/users/export} takes a read permit like any read, but its duration is not a
+ * latency sample. A streaming export runs as long as the table is big and the client is slow,
+ * which is not queueing, and as a sample it would push the read limit down.
+ *
+ * <p>Runs after {@link IdempotencyFilter}, so replays never take a permit.
+ *
+ * <p>Metrics: {@code user.limiter.limit}, {@code user.limiter.inflight} and
+ * {@code user.limiter.rejected}, each tagged {@code type=read|write}.
+ */
+@Component
+@ConditionalOnProperty(name = "user.limiter.enabled", havingValue = "true")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class AdaptiveConcurrencyLimiter extends OncePerRequestFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String EXPORT_PATH = "/api/users/export";
+
+    private final GradientLimit reads;
+    private final GradientLimit writes;
+    private final Counter readsRejected;
+    private final Counter writesRejected;
+
+    // The 503 body never changes, so it is serialized once instead of per shed request
+    private final byte[] overloadedBody;
+
+    public AdaptiveConcurrencyLimiter(@Value("${user.limiter.initial-limit:20}") int initialLimit,
+                                      @Value("${user.limiter.min-limit:4}") int minLimit,
+                                      @Value("${user.limiter.max-limit:200}") int maxLimit,
+                                      @Value("${user.limiter.tolerance:1.5}") double tolerance,
+                                      @Value("${user.limiter.window-samples:20}") int windowSamples,
+                                      MeterRegistry meterRegistry,
+                                      ObjectMapper objectMapper) throws JsonProcessingException {
+        this.reads = new GradientLimit(initialLimit, minLimit, maxLimit, tolerance, windowSamples);
+        this.writes = new GradientLimit(initialLimit, minLimit, maxLimit, tolerance, windowSamples);
+        this.readsRejected = register(meterRegistry, "read", reads);
+        this.writesRejected = register(meterRegistry, "write", writes);
+        this.overloadedBody = objectMapper.writeValueAsBytes(
+                new UserController.ErrorResponse("Server is overloaded, try again later"));
+    }
+
+    private static Counter register(MeterRegistry meterRegistry, String type, GradientLimit limit) {
+        Gauge.builder("user.limiter.limit", limit, GradientLimit::getLimit).tag("type", type).register(meterRegistry);
+        Gauge.builder("user.limiter.inflight", limit, GradientLimit::getInflight).tag("type", type).register(meterRegistry);
+        return meterRegistry.counter("user.limiter.rejected", "type", type);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/users");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = request.getMethod().equals("GET") || request.getMethod().equals("HEAD");
+        GradientLimit limit = read ? reads : writes;
+        if (!limit.tryAcquire()) {
+            (read ? readsRejected : writesRejected).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(overloadedBody.length);
+            response.getOutputStream().write(overloadedBody);
+            return;
+        }
+
+        if (read && request.getServletPath().equals(EXPORT_PATH)) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                limit.releaseUnsampled();
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            chain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            limit.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    public GradientLimit getReads() {
+        return reads;
+    }
+
+    public GradientLimit getWrites() {
+        return writes;
+    }
+}
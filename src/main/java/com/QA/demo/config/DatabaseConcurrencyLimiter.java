@@ -0,0 +1,108 @@
+package com.QA.demo.config;
+
+import com.QA.demo.service.DatabaseBusyException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps how many callers may hold a database connection at once when requests run on virtual
+ * threads. Without it thousands of cheap virtual threads all queue inside the connection pool;
+ * with it they park on a fair semaphore sized to the pool, and the pool never sees more
+ * borrowers than it has connections.
+ *
+ * <p>A permit must always be taken before a connection, never while holding one. Otherwise a
+ * transaction holding a connection waits for a permit while a permit holder waits for a
+ * connection, and once the pool runs dry the two deadlock. Hence:
+ * <ul>
+ *   <li>this is the outermost advice, so {@code @DatabaseBound} service methods take their
+ *       permit before the transaction interceptor borrows a connection;</li>
+ *   <li>repository calls made outside any transaction (cache misses of the cache-fronted
+ *       lookups) take one themselves, and calls inside a transaction never do;</li>
+ *   <li>a thread that holds a permit does not take a second one;</li>
+ *   <li>code that opens its own transaction outside any service method
+ *       ({@code WarmupTransactionFilter}) takes one with {@link #acquire()} first.</li>
+ * </ul>
+ * The virtual-threads profile also turns off open-in-view, which would otherwise keep a
+ * request's connection between service calls.
+ *
+ * <p>{@code exportUsers} is not limited: it holds its connection for as long as the client
+ * reads, and a permit held that long would starve every short call.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DatabaseConcurrencyLimiter {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final ThreadLocal<Boolean> holdingPermit = ThreadLocal.withInitial(() -> false);
+
+    public DatabaseConcurrencyLimiter(@Value("${user.db.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency,
+                                      @Value("${user.db.acquire-timeout:30s}") Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Around("@annotation(com.QA.demo.service.DatabaseBound)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        return withPermit(joinPoint);
+    }
+
+    @Around("execution(* com.QA.demo.repository.UserRepository+.*(..))")
+    public Object limitOutsideTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        return withPermit(joinPoint);
+    }
+
+    private Object withPermit(ProceedingJoinPoint joinPoint) throws Throwable {
+        try (Permit permit = acquire()) {
+            return joinPoint.proceed();
+        }
+    }
+
+    /**
+     * Takes a permit for the current thread, to be closed when its database work is done. A thread
+     * that already holds one gets a permit whose close does nothing.
+     *
+     * @throws DatabaseBusyException when no permit frees up within {@code user.db.acquire-timeout}
+     */
+    public Permit acquire() throws InterruptedException {
+        if (holdingPermit.get()) {
+            return Permit.NONE;
+        }
+        if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new DatabaseBusyException("Database busy, try again later");
+        }
+        holdingPermit.set(true);
+        return () -> {
+            holdingPermit.remove();
+            permits.release();
+        };
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public interface Permit extends AutoCloseable {
+        Permit NONE = () -> {
+        };
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,114 @@
+package com.QA.demo.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that follows measured latency, after the gradient algorithm of Netflix's
+ * concurrency-limits library.
+ *
+ * <p>Latency samples are averaged over windows of {@code windowSamples} completed requests. The
+ * lowest window average seen is the baseline, the latency without queueing. It creeps up by 1% a
+ * window, so a backend that became slower for good is learned again. After each window the limit
+ * is multiplied by {@code baseline * tolerance / windowAverage}, kept between 0.5 and 1, and a
+ * headroom of {@code sqrt(limit)} is added. Steady latency makes the limit grow by the headroom.
+ * Latency above the tolerated baseline, which is queueing, shrinks it. A failed request (5xx)
+ * cuts it by at least 10%.
+ *
+ * <p>When fewer than half of the permits were in use during a window, the load says nothing
+ * about capacity and the limit is left alone.
+ */
+public class GradientLimit {
+
+    private static final double BASELINE_DRIFT = 1.01;
+    private static final double SMOOTHING = 0.2;
+    private static final double DROP_FACTOR = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final int windowSamples;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+
+    // Window state, guarded by this
+    private double estimatedLimit;
+    private double baselineRttNanos;
+    private long windowRttNanos;
+    private int windowCount;
+    private int windowMaxInflight;
+    private boolean windowDropped;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, int windowSamples) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowSamples = windowSamples;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    // Never blocks: false means the caller should be turned away now
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, boolean dropped) {
+        int inflightBefore = inflight.getAndDecrement();
+        synchronized (this) {
+            windowRttNanos += rttNanos;
+            windowCount++;
+            windowMaxInflight = Math.max(windowMaxInflight, inflightBefore);
+            windowDropped |= dropped;
+            if (windowCount >= windowSamples) {
+                update((double) windowRttNanos / windowCount);
+                windowRttNanos = 0;
+                windowCount = 0;
+                windowMaxInflight = 0;
+                windowDropped = false;
+            }
+        }
+    }
+
+    // Frees the permit without a latency sample, for requests whose duration says nothing about queueing
+    public void releaseUnsampled() {
+        inflight.decrementAndGet();
+    }
+
+    private void update(double shortRttNanos) {
+        baselineRttNanos = baselineRttNanos == 0
+                ? shortRttNanos
+                : Math.min(baselineRttNanos * BASELINE_DRIFT, shortRttNanos);
+
+        if (!windowDropped && windowMaxInflight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineRttNanos / shortRttNanos));
+        double next = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        if (windowDropped) {
+            next = Math.min(next, estimatedLimit * DROP_FACTOR);
+        }
+        next = estimatedLimit * (1 - SMOOTHING) + next * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
@@ -0,0 +1,286 @@
+package com.QA.demo.config;
+
+import com.QA.demo.controller.UserController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@code Idempotency-Key} support for POST and PUT under {@code /api/users}.
+ *
+ * <p>The first request with a key runs normally and its response (status, headers, body) is
+ * stored, keyed by method, path and key. Retries with the same key get that response back from
+ * memory, marked with {@code Idempotent-Replayed: true}, without reaching the controller.
+ *
+ * <p>The store holds futures, as {@code UserCache} does. A duplicate that arrives while the first
+ * request is still running waits for its result instead of running the write a second time.
+ * 5xx responses and exceptions are not kept, so a retry after a server-side failure runs again.
+ * A key reused with a different body is rejected with 422.
+ *
+ * <p>Entries expire after {@code user.idempotency.ttl}, and the store is bounded by the total
+ * size of the stored bodies ({@code user.idempotency.max-size}). The store is per process, so
+ * retries that reach another instance are not deduplicated.
+ *
+ * <p>The request body is buffered to fingerprint it, so a keyed request whose body is larger than
+ * {@code user.idempotency.max-body-size} is rejected with 413: up front from its
+ * {@code Content-Length}, or as soon as reading it passes the limit.
+ */
+@Component
+// Ahead of AdaptiveConcurrencyLimiter: a replay costs nothing and should never be shed
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String USERS_PATH = "/api/users";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AsyncCache<String, StoredResponse> responses;
+    private final Duration waitTimeout;
+    private final int maxBodySize;
+    private final MeterRegistry meterRegistry;
+
+    public IdempotencyFilter(@Value("${user.idempotency.ttl:24h}") Duration ttl,
+                             @Value("${user.idempotency.max-size:64MB}") DataSize maxSize,
+                             @Value("${user.idempotency.wait-timeout:30s}") Duration waitTimeout,
+                             @Value("${user.idempotency.max-body-size:1MB}") DataSize maxBodySize,
+                             MeterRegistry meterRegistry) {
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, StoredResponse response) -> key.length() + response.body().length)
+                .buildAsync();
+        this.waitTimeout = waitTimeout;
+        this.maxBodySize = Math.toIntExact(maxBodySize.toBytes());
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        // Servlet path, so the context path does not matter and /api/usersX is not a users path
+        String path = request.getServletPath();
+        return request.getHeader(IDEMPOTENCY_KEY) == null
+                || !(method.equals("POST") || method.equals("PUT"))
+                || !(path.equals(USERS_PATH) || path.startsWith(USERS_PATH + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, IDEMPOTENCY_KEY + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        if (request.getContentLengthLong() > maxBodySize) {
+            rejectTooLarge(response);
+            return;
+        }
+        // Content-Length can be absent (chunked), so the read itself stops one byte past the limit
+        byte[] body = request.getInputStream().readNBytes(maxBodySize + 1);
+        if (body.length > maxBodySize) {
+            rejectTooLarge(response);
+            return;
+        }
+        byte[] fingerprint = sha256(body);
+        String storeKey = request.getMethod() + " " + request.getRequestURI() + " " + key;
+
+        while (true) {
+            CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> existing = responses.asMap().putIfAbsent(storeKey, pending);
+            if (existing == null) {
+                execute(new CachedBodyRequest(request, body), response, chain, storeKey, fingerprint, pending);
+                return;
+            }
+
+            StoredResponse stored;
+            try {
+                stored = existing.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                // The first attempt failed and was removed; go again, as the first of the waiters or behind it
+                continue;
+            } catch (TimeoutException e) {
+                count("in_progress");
+                reject(response, HttpStatus.CONFLICT, "A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for the original request", e);
+            }
+
+            if (!MessageDigest.isEqual(stored.fingerprint(), fingerprint)) {
+                count("mismatch");
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        IDEMPOTENCY_KEY + " was already used with a different request body");
+                return;
+            }
+            count("replayed");
+            long start = System.nanoTime();
+            replay(stored, response);
+            meterRegistry.timer("user.idempotency.replay").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return;
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                         String storeKey, byte[] fingerprint, CompletableFuture<StoredResponse> pending)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, captured);
+        } catch (ServletException | IOException | RuntimeException e) {
+            responses.asMap().remove(storeKey, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : captured.getHeaderNames()) {
+            // Both are set again from the stored body on replay
+            if (!name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE) && !name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)) {
+                headers.put(name, new ArrayList<>(captured.getHeaders(name)));
+            }
+        }
+        StoredResponse stored = new StoredResponse(fingerprint, captured.getStatus(), captured.getContentType(),
+                headers, captured.getContentAsByteArray());
+        if (stored.status() >= 500) {
+            // Concurrent duplicates still see this response, later retries run again
+            responses.asMap().remove(storeKey, pending);
+        }
+        pending.complete(stored);
+        count("executed");
+        captured.copyBodyToResponse();
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void rejectTooLarge(HttpServletResponse response) throws IOException {
+        count("too_large");
+        reject(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                "Request body must not exceed " + maxBodySize + " bytes with an " + IDEMPOTENCY_KEY);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new UserController.ErrorResponse(message));
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("user.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record StoredResponse(byte[] fingerprint, int status, String contentType,
+                                  Map<String, List<String>> headers, byte[] body) {}
+
+    // The body is read once up front to fingerprint it, then served again to the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available and then finished at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding() == null ? "UTF-8" : getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.QA.demo.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Serialization tuning for the auto-configured {@code ObjectMapper}, and so for
+ * {@code MappingJackson2HttpMessageConverter}, which writes straight to the response stream.
+ */
+@Configuration
+public class JsonConfig {
+
+    // Module beans are registered with the ObjectMapper by Spring Boot
+    @Bean
+    public Module userJsonModule() {
+        return new UserJsonModule();
+    }
+
+    /*
+     * Jackson's default buffer pool is per thread, which does nothing for virtual threads (each
+     * request gets a fresh thread, so fresh 8-16KB buffers). A shared bounded pool hands the same
+     * buffers from one request to the next whatever thread they run on.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sharedJsonBufferPool() {
+        return builder -> builder.factory(JsonFactory.builder()
+                .recyclerPool(JsonRecyclerPools.sharedBoundedPool())
+                .build());
+    }
+}
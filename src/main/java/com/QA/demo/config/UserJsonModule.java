@@ -0,0 +1,93 @@
+package com.QA.demo.config;
+
+import com.QA.demo.controller.UserController;
+import com.QA.demo.model.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializers for the payloads the user API writes most: {@link User} (lists of
+ * up to 10000) and {@link UserController.ErrorResponse}.
+ *
+ * <p>They replace Jackson's reflective bean serializer with straight-line generator calls. Field
+ * names are pre-encoded {@link SerializedString}s, values go to the generator as numbers or
+ * strings, and nothing is built as an intermediate {@code String} or tree. The output is
+ * byte-for-byte what the annotations on {@link User} produce; only serialization is replaced,
+ * reading request bodies still goes through the bean deserializer.
+ */
+public class UserJsonModule extends SimpleModule {
+
+    public UserJsonModule() {
+        super("UserJsonModule");
+        addSerializer(User.class, new UserSerializer());
+        addSerializer(UserController.ErrorResponse.class, new ErrorResponseSerializer());
+    }
+
+    static final class UserSerializer extends StdSerializer<User> {
+
+        private static final SerializableString ID = new SerializedString("id");
+        private static final SerializableString NAME = new SerializedString("name");
+        private static final SerializableString EMAIL = new SerializedString("email");
+        private static final SerializableString AGE = new SerializedString("age");
+        private static final SerializableString VERSION = new SerializedString("version");
+
+        UserSerializer() {
+            super(User.class);
+        }
+
+        @Override
+        public void serialize(User user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject(user);
+            generator.writeFieldName(ID);
+            writeNumber(generator, user.getId());
+            generator.writeFieldName(NAME);
+            generator.writeString(user.getName());
+            generator.writeFieldName(EMAIL);
+            generator.writeString(user.getEmail());
+            generator.writeFieldName(AGE);
+            if (user.getAge() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(user.getAge());
+            }
+            // @JsonInclude(NON_NULL) on User.version
+            if (user.getVersion() != null) {
+                generator.writeFieldName(VERSION);
+                generator.writeNumber(user.getVersion());
+            }
+            generator.writeEndObject();
+        }
+
+        private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(value);
+            }
+        }
+    }
+
+    static final class ErrorResponseSerializer extends StdSerializer<UserController.ErrorResponse> {
+
+        private static final SerializableString MESSAGE = new SerializedString("message");
+
+        ErrorResponseSerializer() {
+            super(UserController.ErrorResponse.class);
+        }
+
+        @Override
+        public void serialize(UserController.ErrorResponse error, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(error);
+            generator.writeFieldName(MESSAGE);
+            generator.writeString(error.getMessage());
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.QA.demo.config;
+
+import com.QA.demo.service.UserCache;
+import com.QA.demo.service.UserWriteBehind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional JIT warm-up ({@code user.warmup.enabled=true}). Runs the create, read, list, update
+ * and delete paths over loopback HTTP until the iteration budget or the time cap is used up, so
+ * Tomcat, Spring MVC, Jackson and the Hibernate query plans are compiled before live traffic
+ * arrives.
+ *
+ * <p>Application runners run after the web server has started but before the
+ * {@code ApplicationReadyEvent}, so the readiness probe keeps refusing traffic until this returns.
+ *
+ * <p>Every request goes over HTTP, since that is where most of the first-request cost is, and
+ * {@link WarmupTransactionFilter} rolls each one back. Nothing is committed, so a failed or
+ * killed warm-up leaves nothing behind either. The cache may then hold rolled-back rows, so it
+ * is cleared at the end. In write-behind mode a valid POST would queue a real write on another
+ * thread, so an invalid one (400) is sent instead; the insert path is still warmed through the
+ * scratch users.
+ */
+@Component
+@ConditionalOnProperty(name = "user.warmup.enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private WarmupTransactionFilter transactionFilter;
+
+    @Autowired
+    private UserCache userCache;
+
+    // Only present with user.write-behind.enabled=true
+    @Autowired(required = false)
+    private UserWriteBehind userWriteBehind;
+
+    private final int iterations;
+    private final Duration maxDuration;
+    private final int reportRequests;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private volatile int completedIterations;
+
+    public WarmupRunner(@Value("${user.warmup.iterations:1000}") int iterations,
+                        @Value("${user.warmup.max-duration:60s}") Duration maxDuration,
+                        @Value("${user.warmup.report-requests:100}") int reportRequests) {
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+        this.reportRequests = reportRequests;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            log.info("No web server running, skipping warm-up");
+            return;
+        }
+        String base = "http://localhost:" + port + "/api/users";
+        List<Long> latencies = new ArrayList<>();
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+
+        int done = 0;
+        try {
+            while (done < iterations && System.nanoTime() < deadline) {
+                cycle(base, done, latencies);
+                done++;
+                completedIterations = done;
+            }
+        } catch (IOException | RuntimeException e) {
+            // A failed warm-up only costs latency, never the startup
+            log.warn("Warm-up stopped after {} iterations: {}", done, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            userCache.invalidateAll();
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        int window = Math.min(reportRequests, latencies.size() / 2);
+        if (window == 0) {
+            log.info("Warm-up ran {} iterations in {} ms", done, millis);
+            return;
+        }
+        log.info("Warm-up ran {} iterations ({} requests) in {} ms; p99 of {} requests went from {} ms (first) to {} ms (last)",
+                done, latencies.size(), millis, window,
+                String.format("%.2f", p99(latencies.subList(0, window))),
+                String.format("%.2f", p99(latencies.subList(latencies.size() - window, latencies.size()))));
+    }
+
+    // Each request is rolled back; the scratch path is the filter's own user for that request
+    private void cycle(String base, int iteration, List<Long> latencies) throws IOException, InterruptedException {
+        String email = "warmup-" + iteration + "@warmup.invalid";
+        String scratch = base + "/" + WarmupTransactionFilter.SCRATCH;
+        if (userWriteBehind == null) {
+            send(latencies, HttpRequest.newBuilder(URI.create(base))
+                    .header("Content-Type", "application/json")
+                    .POST(json("{\"name\": \"Warmup User\", \"email\": \"" + email + "\", \"age\": 30}")), 201);
+        } else {
+            send(latencies, HttpRequest.newBuilder(URI.create(base))
+                    .header("Content-Type", "application/json")
+                    .POST(json("{\"name\": \"Warmup User\", \"email\": \"" + email + "\", \"age\": 0}")), 400);
+        }
+        send(latencies, HttpRequest.newBuilder(URI.create(scratch)).GET(), 200);
+        send(latencies, HttpRequest.newBuilder(URI.create(base + "?limit=20")).GET(), 200);
+        send(latencies, HttpRequest.newBuilder(URI.create(base + "?limit=20&fields=id,name")).GET(), 200);
+        send(latencies, HttpRequest.newBuilder(URI.create(scratch))
+                .header("Content-Type", "application/json")
+                .PUT(json("{\"name\": \"Warmup User\", \"email\": \"" + email + "\", \"age\": 31}")), 200);
+        send(latencies, HttpRequest.newBuilder(URI.create(scratch)).DELETE(), 200);
+    }
+
+    private HttpResponse<String> send(List<Long> latencies, HttpRequest.Builder request, int expectedStatus)
+            throws IOException, InterruptedException {
+        HttpRequest built = request.header(WarmupTransactionFilter.TOKEN_HEADER, transactionFilter.getToken()).build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(built, HttpResponse.BodyHandlers.ofString());
+        latencies.add(System.nanoTime() - start);
+        if (response.statusCode() != expectedStatus) {
+            throw new RuntimeException(built.method() + " " + built.uri() + " returned " + response.statusCode());
+        }
+        return response;
+    }
+
+    int getCompletedIterations() {
+        return completedIterations;
+    }
+
+    private static HttpRequest.BodyPublisher json(String body) {
+        return HttpRequest.BodyPublishers.ofString(body);
+    }
+
+    private static double p99(List<Long> nanos) {
+        List<Long> sorted = new ArrayList<>(nanos);
+        sorted.sort(null);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1) / 1_000_000.0;
+    }
+}
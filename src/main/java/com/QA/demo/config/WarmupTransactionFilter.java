@@ -0,0 +1,97 @@
+package com.QA.demo.config;
+
+import com.QA.demo.config.DatabaseConcurrencyLimiter.Permit;
+import com.QA.demo.model.User;
+import com.QA.demo.service.UserService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the requests of {@link WarmupRunner} in a transaction that is always rolled back, so the
+ * warm-up goes through the whole HTTP stack without leaving anything behind. Only requests that
+ * carry this instance's random token are touched.
+ *
+ * <p>The table is empty on a fresh start and each request is its own transaction, so every
+ * warm-up request first gets a scratch user of its own, inside that transaction. A path ending
+ * in {@code /scratch} is forwarded to that user's id.
+ *
+ * <p>With virtual threads the {@link DatabaseConcurrencyLimiter} permit is taken before the
+ * transaction borrows its connection, and held for the whole request, as a
+ * {@code @DatabaseBound} method would.
+ *
+ * <p>After-commit listeners (cache invalidation, table version, stats) never see these writes.
+ * Sequence values drawn here are lost, as with any rollback.
+ */
+@Component
+@ConditionalOnProperty(name = "user.warmup.enabled", havingValue = "true")
+public class WarmupTransactionFilter extends OncePerRequestFilter {
+
+    static final String TOKEN_HEADER = "X-Warmup-Token";
+    static final String SCRATCH = "scratch";
+
+    private final String token = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserService userService;
+
+    // Only present with spring.threads.virtual.enabled=true
+    @Autowired
+    private ObjectProvider<DatabaseConcurrencyLimiter> databaseLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !token.equals(request.getHeader(TOKEN_HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        DatabaseConcurrencyLimiter limiter = databaseLimiter.getIfAvailable();
+        try (Permit permit = limiter == null ? Permit.NONE : limiter.acquire()) {
+            doFilterRolledBack(request, response, chain);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted waiting for a database permit", e);
+        }
+    }
+
+    private void doFilterRolledBack(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            User scratch = userService.createUser(new User(null, "Warmup User",
+                    "warmup-" + token + "-" + sequence.incrementAndGet() + "@warmup.invalid", 30));
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            if (path.endsWith("/" + SCRATCH)) {
+                String target = path.substring(0, path.length() - SCRATCH.length()) + scratch.getId();
+                request.getRequestDispatcher(target).forward(request, response);
+            } else {
+                chain.doFilter(request, response);
+            }
+        } finally {
+            transactionManager.rollback(transaction);
+        }
+    }
+
+    String getToken() {
+        return token;
+    }
+}
@@ -0,0 +1,20 @@
+package com.QA.demo.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements one successful call of the endpoint may issue, with a cold
+ * user cache. {@code SqlBudgetTest} calls every handler in {@link UserController} and fails the
+ * build when a handler has no budget or goes over it, so an added round trip is a deliberate change.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SqlBudget {
+
+    int value();
+}
@@ -1,12 +1,31 @@
 package com.QA.demo.controller;
 
 import com.QA.demo.model.User;
+import com.QA.demo.model.UserBatchResult;
+import com.QA.demo.model.UserCacheStats;
+import com.QA.demo.model.UserPage;
+import com.QA.demo.model.UserStats;
+import com.QA.demo.model.UserWriteStatus;
+import com.QA.demo.service.IfMatch;
 import com.QA.demo.service.UserService;
+import com.QA.demo.service.UserTableVersion;
+import com.QA.demo.service.UserWriteBehind;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,46 +36,202 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserTableVersion userTableVersion;
+
+    // Only present with user.write-behind.enabled=true
+    @Autowired(required = false)
+    private UserWriteBehind userWriteBehind;
+
+    /*
+     * Expected failures are typed UserExceptions and become responses in UserExceptionHandler;
+     * anything else is a real fault and is left to surface as a 500.
+     *
+     * Conditional GETs call WebRequest.checkNotModified before doing any real work. When
+     * If-None-Match matches it sets 304, and returning null tells Spring MVC the response is complete.
+     */
+
+    // Change marker (the ETag), page query, plus COUNT(*) when includeTotal is set
+    // fields=id,name,... selects only those columns and returns them without building entities
+    @SqlBudget(3)
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(defaultValue = "false") boolean includeTotal,
+                                         @RequestParam(required = false) String fields,
+                                         WebRequest webRequest) {
+        // Read before the rows, see UserTableVersion
+        String etag = userTableVersion.current().map(UserController::quote).orElse(null);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        if (fields != null) {
+            Object body = after == null && limit == null
+                    ? userService.getAllUserFields(fields)
+                    : userService.getUserFieldsPage(fields, after, limit, includeTotal);
+            return ResponseEntity.ok().eTag(etag).body(body);
+        }
+        if (after == null && limit == null) {
+            // Legacy unpaged response, kept for existing clients
+            return ResponseEntity.ok().eTag(etag).body(userService.getAllUsers());
+        }
+        UserPage page = userService.getUsersPage(after, limit, includeTotal);
+        return ResponseEntity.ok().eTag(etag).body(page);
     }
 
+    // Streams every user as newline-delimited JSON straight to the response, one row at a time
+    @SqlBudget(1)
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        // Let the generator and Tomcat buffers decide when to hit the socket instead of flushing per row
+        ObjectWriter userWriter = objectMapper.writerFor(User.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            userService.exportUsers(user -> {
+                try {
+                    userWriter.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // One keyset query on the age or name index
+    @SqlBudget(1)
+    @GetMapping("/search")
+    public UserPage searchUsers(@RequestParam(required = false) Integer minAge,
+                                @RequestParam(required = false) Integer maxAge,
+                                @RequestParam(required = false) String namePrefix,
+                                @RequestParam(required = false) String after,
+                                @RequestParam(required = false) Integer limit) {
+        return userService.searchUsers(minAge, maxAge, namePrefix, after, limit);
+    }
+
+    @SqlBudget(0)
+    @GetMapping("/cache-stats")
+    public UserCacheStats getCacheStats() {
+        return userService.getCacheStats();
+    }
+
+    // Served from counters kept in memory, never from the table
+    @SqlBudget(0)
+    @GetMapping("/stats")
+    public UserStats getStats() {
+        return userService.getStats();
+    }
+
+    // Version check only for If-None-Match, then the lookup; both are free on a cache hit
+    @SqlBudget(2)
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<User> getUserById(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = userService.getUserVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (webRequest.checkNotModified(etag(version.get()))) {
+                return null;
+            }
+        }
         Optional<User> user = userService.getUserById(id);
-        return user.map(ResponseEntity::ok)
+        return user.map(found -> ResponseEntity.ok().eTag(etag(found.getVersion())).body(found))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /*
+     * Every write also increments the change counter behind the collection ETag, see UserTableVersion.
+     */
+
+    // INSERT plus the occasional pooled sequence call; in write-behind mode only the email check
+    @SqlBudget(3)
     @PostMapping
     public ResponseEntity<?> createUser(@RequestBody User user) {
-        try {
-            User createdUser = userService.createUser(user);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        if (userWriteBehind != null) {
+            return acceptUser(user);
         }
+        User createdUser = userService.createUser(user);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(etag(createdUser.getVersion())).body(createdUser);
     }
 
-    @PutMapping("/{id}")
-    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
-        try {
-            User updatedUser = userService.updateUser(id, userDetails);
-            return ResponseEntity.ok(updatedUser);
-        } catch (RuntimeException e) {
+    // 202 with a tracking id; the row is written later by the write-behind queue
+    private ResponseEntity<?> acceptUser(User user) {
+        UserWriteStatus status = userWriteBehind.submit(user);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/users/writes/" + status.getTrackingId()))
+                .body(status);
+    }
+
+    // Status of a write-behind create, kept in memory for user.write-behind.status-ttl
+    @SqlBudget(0)
+    @GetMapping("/writes/{trackingId}")
+    public ResponseEntity<UserWriteStatus> getWriteStatus(@PathVariable String trackingId) {
+        if (userWriteBehind == null) {
             return ResponseEntity.notFound().build();
         }
+        return userWriteBehind.getStatus(trackingId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteUser(@PathVariable Long id) {
-        try {
-            userService.deleteUser(id);
-            return ResponseEntity.ok().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+    // For up to 500 users: email IN query, sequence call(s), one insert batch
+    @SqlBudget(5)
+    @PostMapping("/batch")
+    public List<UserBatchResult> createUsers(@RequestBody List<User> users) {
+        if (userWriteBehind != null) {
+            // An email a queued 202 user holds is taken, though the unique constraint cannot see it yet
+            return userService.createUsers(users, userWriteBehind::isReserved);
         }
+        return userService.createUsers(users);
+    }
+
+    @SqlBudget(2)
+    @PutMapping("/{id}")
+    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User userDetails, WebRequest webRequest) {
+        User updatedUser = userService.updateUser(id, userDetails, ifMatch(webRequest));
+        return ResponseEntity.ok().eTag(etag(updatedUser.getVersion())).body(updatedUser);
+    }
+
+    // Partial update: fields left out of the body (or null) keep their current value
+    // SELECT, then an UPDATE of the changed columns only
+    @SqlBudget(3)
+    @PatchMapping("/{id}")
+    public ResponseEntity<User> patchUser(@PathVariable Long id, @RequestBody User patch, WebRequest webRequest) {
+        Optional<User> patchedUser = userService.patchUser(id, patch, ifMatch(webRequest));
+        return patchedUser.map(user -> ResponseEntity.ok().eTag(etag(user.getVersion())).body(user))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @SqlBudget(2)
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteUser(@PathVariable Long id, WebRequest webRequest) {
+        userService.deleteUser(id, ifMatch(webRequest));
+        return ResponseEntity.ok().build();
+    }
+
+    private static String etag(Long version) {
+        return quote(String.valueOf(version));
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    /*
+     * Writes do not pre-read the version: the If-Match precondition is handed to the service, which
+     * checks it in the write itself or against the row it loads anyway.
+     */
+    private static IfMatch ifMatch(WebRequest webRequest) {
+        return IfMatch.parse(webRequest.getHeader(HttpHeaders.IF_MATCH));
     }
 
     // Error response class
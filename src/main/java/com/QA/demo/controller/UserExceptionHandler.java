@@ -0,0 +1,52 @@
+package com.QA.demo.controller;
+
+import com.QA.demo.controller.UserController.ErrorResponse;
+import com.QA.demo.service.DatabaseBusyException;
+import com.QA.demo.service.DuplicateEmailException;
+import com.QA.demo.service.InvalidRequestException;
+import com.QA.demo.service.UserException;
+import com.QA.demo.service.UserNotFoundException;
+import com.QA.demo.service.VersionMismatchException;
+import com.QA.demo.service.WriteQueueFullException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps the typed {@link UserException}s thrown under {@link UserController} to responses. Any
+ * other exception is a real fault and still surfaces as 500.
+ */
+@RestControllerAdvice(assignableTypes = UserController.class)
+public class UserExceptionHandler {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    // A taken email has always been a 400 for this API, not a 409
+    @ExceptionHandler({InvalidRequestException.class, DuplicateEmailException.class})
+    public ResponseEntity<ErrorResponse> badRequest(UserException e) {
+        return respond(HttpStatus.BAD_REQUEST, e);
+    }
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ErrorResponse> notFound(UserNotFoundException e) {
+        return respond(HttpStatus.NOT_FOUND, e);
+    }
+
+    @ExceptionHandler(VersionMismatchException.class)
+    public ResponseEntity<ErrorResponse> versionMismatch(VersionMismatchException e) {
+        return respond(HttpStatus.PRECONDITION_FAILED, e);
+    }
+
+    @ExceptionHandler({WriteQueueFullException.class, DatabaseBusyException.class})
+    public ResponseEntity<ErrorResponse> busy(UserException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(new ErrorResponse(e.getMessage()));
+    }
+
+    private static ResponseEntity<ErrorResponse> respond(HttpStatus status, UserException e) {
+        return ResponseEntity.status(status).body(new ErrorResponse(e.getMessage()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.QA.demo.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "user_import_checkpoints")
+public class ImportCheckpoint {
+    // Absolute path of the imported file
+    @Id
+    private String source;
+
+    // Last source line covered by a committed chunk
+    @Column(nullable = false)
+    private Long lastLine;
+
+    @Column(nullable = false)
+    private Long importedCount;
+
+    @Column(nullable = false)
+    private Boolean completed;
+
+    // Constructors
+    public ImportCheckpoint() {}
+
+    public ImportCheckpoint(String source, Long lastLine, Long importedCount, Boolean completed) {
+        this.source = source;
+        this.lastLine = lastLine;
+        this.importedCount = importedCount;
+        this.completed = completed;
+    }
+
+    // Getters and Setters
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public Long getLastLine() {
+        return lastLine;
+    }
+
+    public void setLastLine(Long lastLine) {
+        this.lastLine = lastLine;
+    }
+
+    public Long getImportedCount() {
+        return importedCount;
+    }
+
+    public void setImportedCount(Long importedCount) {
+        this.importedCount = importedCount;
+    }
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+}
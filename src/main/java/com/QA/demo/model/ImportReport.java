@@ -0,0 +1,75 @@
+package com.QA.demo.model;
+
+public class ImportReport {
+    private String source;
+    private long resumedFromLine;
+    private long linesRead;
+    private long imported;
+    private long invalid;
+    private long duplicates;
+    private long chunksCommitted;
+    private long elapsedMillis;
+
+    // Constructors
+    public ImportReport() {}
+
+    public ImportReport(String source, long resumedFromLine, long linesRead, long imported, long invalid,
+                        long duplicates, long chunksCommitted, long elapsedMillis) {
+        this.source = source;
+        this.resumedFromLine = resumedFromLine;
+        this.linesRead = linesRead;
+        this.imported = imported;
+        this.invalid = invalid;
+        this.duplicates = duplicates;
+        this.chunksCommitted = chunksCommitted;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Getters
+    public String getSource() {
+        return source;
+    }
+
+    public long getResumedFromLine() {
+        return resumedFromLine;
+    }
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getChunksCommitted() {
+        return chunksCommitted;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // toString method
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "source='" + source + '\'' +
+                ", resumedFromLine=" + resumedFromLine +
+                ", linesRead=" + linesRead +
+                ", imported=" + imported +
+                ", invalid=" + invalid +
+                ", duplicates=" + duplicates +
+                ", chunksCommitted=" + chunksCommitted +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
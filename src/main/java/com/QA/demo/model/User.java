@@ -1,12 +1,24 @@
 package com.QA.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "users")
+// The id suffix makes each index cover the keyset order of GET /api/users/search
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_age_id", columnList = "age, id"),
+        @Index(name = "idx_users_name_id", columnList = "name, id")
+})
+// UPDATE only the columns that actually changed (PATCH usually touches one field)
+@DynamicUpdate
 public class User {
+    // Pooled sequence instead of IDENTITY: ids are handed out in blocks, so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 500)
     private Long id;
 
     @Column(nullable = false)
@@ -18,6 +30,14 @@ public class User {
     @Column(nullable = false)
     private Integer age;
 
+    // Optimistic-locking version, also the source of the user's ETag. Clients send it back via If-Match, not the body.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
+
     // Constructors
     public User() {}
 
@@ -61,6 +81,14 @@ public class User {
         this.age = age;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // toString method
     @Override
     public String toString() {
@@ -69,6 +97,7 @@ public class User {
                 ", name='" + name + '\'' +
                 ", email='" + email + '\'' +
                 ", age=" + age +
+                ", version=" + version +
                 '}';
     }
 
@@ -0,0 +1,66 @@
+package com.QA.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserBatchResult {
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    // Position of the item in the submitted array
+    private int index;
+    private String status;
+    private User user;
+    private String message;
+
+    // Constructors
+    public UserBatchResult() {}
+
+    public UserBatchResult(int index, String status, User user, String message) {
+        this.index = index;
+        this.status = status;
+        this.user = user;
+        this.message = message;
+    }
+
+    public static UserBatchResult created(int index, User user) {
+        return new UserBatchResult(index, CREATED, user, null);
+    }
+
+    public static UserBatchResult rejected(int index, String message) {
+        return new UserBatchResult(index, REJECTED, null, message);
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
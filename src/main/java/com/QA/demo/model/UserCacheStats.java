@@ -0,0 +1,41 @@
+package com.QA.demo.model;
+
+public class UserCacheStats {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+    private long size;
+
+    // Constructors
+    public UserCacheStats() {}
+
+    public UserCacheStats(long hits, long misses, long evictions, double hitRate, long size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.hitRate = hitRate;
+        this.size = size;
+    }
+
+    // Getters
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public long getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,54 @@
+package com.QA.demo.model;
+
+import jakarta.persistence.*;
+
+// Single row counting committed writes to the users table, the source of the collection ETag
+@Entity
+@Table(name = "user_change_counter")
+public class UserChangeCounter {
+    public static final Integer ID = 1;
+
+    @Id
+    private Integer id;
+
+    // Set when the row is created, so a recreated table never repeats an earlier marker
+    @Column(nullable = false)
+    private Long epoch;
+
+    @Column(nullable = false)
+    private Long changes;
+
+    // Constructors
+    public UserChangeCounter() {}
+
+    public UserChangeCounter(Integer id, Long epoch, Long changes) {
+        this.id = id;
+        this.epoch = epoch;
+        this.changes = changes;
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Long getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(Long epoch) {
+        this.epoch = epoch;
+    }
+
+    public Long getChanges() {
+        return changes;
+    }
+
+    public void setChanges(Long changes) {
+        this.changes = changes;
+    }
+}
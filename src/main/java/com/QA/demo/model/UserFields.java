@@ -0,0 +1,21 @@
+package com.QA.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Sparse view of a user for {@code GET /api/users?fields=...}. Built from scalar columns, never
+ * from a managed entity; the properties that were not requested stay null and are left out of
+ * the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserFields(Long id, String name, String email, Integer age, Long version) {
+
+    // Selectable properties, in response order
+    public static final List<String> NAMES = List.of("id", "name", "email", "age", "version");
+
+    public UserFields withoutId() {
+        return new UserFields(null, name, email, age, version);
+    }
+}
@@ -0,0 +1,51 @@
+package com.QA.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Same shape as UserPage, for ?fields= projections
+public class UserFieldsPage {
+    private List<UserFields> users;
+
+    // Opaque cursor for the next page, null when this is the last page
+    private String nextCursor;
+
+    // Only populated when the caller explicitly asks for the total
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
+
+    // Constructors
+    public UserFieldsPage() {}
+
+    public UserFieldsPage(List<UserFields> users, String nextCursor, Long total) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    // Getters and Setters
+    public List<UserFields> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserFields> users) {
+        this.users = users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+}
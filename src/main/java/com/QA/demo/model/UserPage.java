@@ -0,0 +1,50 @@
+package com.QA.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public class UserPage {
+    private List<User> users;
+
+    // Opaque cursor for the next page, null when this is the last page
+    private String nextCursor;
+
+    // Only populated when the caller explicitly asks for the total
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
+
+    // Constructors
+    public UserPage() {}
+
+    public UserPage(List<User> users, String nextCursor, Long total) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    // Getters and Setters
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<User> users) {
+        this.users = users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,90 @@
+package com.QA.demo.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+public class UserStats {
+    private long total;
+    // Null while there are no users
+    private Integer minAge;
+    private Integer maxAge;
+    private Double meanAge;
+    // Number of users per age, in ascending age order
+    private Map<Integer, Long> ageHistogram;
+    // When the counters were last rebuilt from the table
+    private Instant recomputedAt;
+
+    // Constructors
+    public UserStats() {}
+
+    public UserStats(long total, Integer minAge, Integer maxAge, Double meanAge,
+                     Map<Integer, Long> ageHistogram, Instant recomputedAt) {
+        this.total = total;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.meanAge = meanAge;
+        this.ageHistogram = ageHistogram;
+        this.recomputedAt = recomputedAt;
+    }
+
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public Double getMeanAge() {
+        return meanAge;
+    }
+
+    public void setMeanAge(Double meanAge) {
+        this.meanAge = meanAge;
+    }
+
+    public Map<Integer, Long> getAgeHistogram() {
+        return ageHistogram;
+    }
+
+    public void setAgeHistogram(Map<Integer, Long> ageHistogram) {
+        this.ageHistogram = ageHistogram;
+    }
+
+    public Instant getRecomputedAt() {
+        return recomputedAt;
+    }
+
+    public void setRecomputedAt(Instant recomputedAt) {
+        this.recomputedAt = recomputedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "UserStats{" +
+                "total=" + total +
+                ", minAge=" + minAge +
+                ", maxAge=" + maxAge +
+                ", meanAge=" + meanAge +
+                ", ageHistogram=" + ageHistogram +
+                ", recomputedAt=" + recomputedAt +
+                '}';
+    }
+}
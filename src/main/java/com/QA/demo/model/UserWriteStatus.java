@@ -0,0 +1,72 @@
+package com.QA.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// State of a create accepted in write-behind mode, polled via GET /api/users/writes/{trackingId}
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserWriteStatus {
+    public static final String PENDING = "PENDING";
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private String trackingId;
+    private String status;
+    // Set once CREATED; the row is committed from then on
+    private User user;
+    private String message;
+
+    // Constructors
+    public UserWriteStatus() {}
+
+    public UserWriteStatus(String trackingId, String status, User user, String message) {
+        this.trackingId = trackingId;
+        this.status = status;
+        this.user = user;
+        this.message = message;
+    }
+
+    public static UserWriteStatus pending(String trackingId) {
+        return new UserWriteStatus(trackingId, PENDING, null, null);
+    }
+
+    public static UserWriteStatus created(String trackingId, User user) {
+        return new UserWriteStatus(trackingId, CREATED, user, null);
+    }
+
+    public static UserWriteStatus failed(String trackingId, String message) {
+        return new UserWriteStatus(trackingId, FAILED, null, message);
+    }
+
+    // Getters and Setters
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public void setTrackingId(String trackingId) {
+        this.trackingId = trackingId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
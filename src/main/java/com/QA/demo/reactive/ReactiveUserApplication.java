@@ -0,0 +1,37 @@
+package com.QA.demo.reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Non-blocking variant of the user API: WebFlux on Netty with R2DBC H2 instead of Tomcat, JPA and
+ * the blocking {@code UserRepository}. Only this package is scanned, so none of the servlet beans
+ * start; the {@code reactive} profile supplies the R2DBC settings.
+ */
+@SpringBootApplication
+@Profile("reactive")
+public class ReactiveUserApplication {
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(ReactiveUserApplication.class)
+				.profiles("reactive")
+				.run(args);
+	}
+
+	// Declared explicitly because Tomcat is also on the classpath and would otherwise be preferred.
+	// A small, fixed set of event-loop threads serves every connection.
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(
+			@Value("${user.reactive.event-loop-threads:4}") int eventLoopThreads) {
+		NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+		LoopResources loops = LoopResources.create("user-api", eventLoopThreads, true);
+		factory.addServerCustomizers(server -> server.runOn(loops));
+		return factory;
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.QA.demo.reactive;
+
+import com.QA.demo.controller.UserController.ErrorResponse;
+import com.QA.demo.model.User;
+import com.QA.demo.service.InvalidRequestException;
+import com.QA.demo.service.UserValidator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Mirrors the /api/users routes of UserController with the same status codes and bodies
+@RestController
+@RequestMapping("/api/users")
+@Profile("reactive")
+public class ReactiveUserController {
+
+    private final ReactiveUserRepository userRepository;
+
+    public ReactiveUserController(ReactiveUserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // Rows are encoded as they arrive: a streamed JSON array, or one line each for application/x-ndjson
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<User> getAllUsers() {
+        return userRepository.findAll();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<User>> getUserById(@PathVariable Long id) {
+        return userRepository.findById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> createUser(@RequestBody User user) {
+        return Mono.fromRunnable(() -> UserValidator.validate(user))
+                .then(userRepository.insert(user))
+                .<ResponseEntity<?>>map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created))
+                .onErrorResume(DataIntegrityViolationException.class,
+                        e -> Mono.just(ResponseEntity.badRequest().body(new ErrorResponse("Email already exists"))))
+                .onErrorResume(InvalidRequestException.class,
+                        e -> Mono.just(ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()))));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<?>> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
+        // Same rules as POST; 404 only when no row has this id, and anything unexpected stays a 500
+        return Mono.fromRunnable(() -> UserValidator.validate(userDetails))
+                .then(userRepository.update(id, userDetails))
+                .<ResponseEntity<?>>map(updated -> updated == 0
+                        ? ResponseEntity.notFound().build()
+                        : ResponseEntity.ok(new User(id, userDetails.getName(), userDetails.getEmail(), userDetails.getAge())))
+                .onErrorResume(DataIntegrityViolationException.class,
+                        e -> Mono.just(ResponseEntity.badRequest().body(new ErrorResponse("Email already exists"))))
+                .onErrorResume(InvalidRequestException.class,
+                        e -> Mono.just(ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()))));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<?>> deleteUser(@PathVariable Long id) {
+        return userRepository.deleteById(id)
+                .map(deleted -> deleted == 0
+                        ? ResponseEntity.notFound().build()
+                        : ResponseEntity.ok().build());
+    }
+}
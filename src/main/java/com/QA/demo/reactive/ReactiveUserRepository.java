@@ -0,0 +1,69 @@
+package com.QA.demo.reactive;
+
+import com.QA.demo.model.User;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@Profile("reactive")
+public class ReactiveUserRepository {
+
+    private static final String COLUMNS = "id, name, email, age";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<User> findAll() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users ORDER BY id")
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    public Mono<User> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Mono<User> insert(User user) {
+        return databaseClient.sql("INSERT INTO users (name, email, age) VALUES (:name, :email, :age)")
+                .bind("name", user.getName())
+                .bind("email", user.getEmail())
+                .bind("age", user.getAge())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> new User(id, user.getName(), user.getEmail(), user.getAge()));
+    }
+
+    // Returns the number of rows updated, 0 when the id does not exist
+    public Mono<Long> update(Long id, User user) {
+        return databaseClient.sql("UPDATE users SET name = :name, email = :email, age = :age WHERE id = :id")
+                .bind("name", user.getName())
+                .bind("email", user.getEmail())
+                .bind("age", user.getAge())
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM users WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static User toUser(Readable row) {
+        return new User(row.get("id", Long.class), row.get("name", String.class),
+                row.get("email", String.class), row.get("age", Integer.class));
+    }
+}
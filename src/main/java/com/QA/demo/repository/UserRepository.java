@@ -1,13 +1,74 @@
 package com.QA.demo.repository;
 
 import com.QA.demo.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom, UserStore {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    // Declared by both JpaRepository (generic) and UserStore; redeclared so each resolves to one method
+    @Override
+    Optional<User> findById(Long id);
+
+    @Override
+    boolean existsById(Long id);
+
+    @Override
+    <S extends User> S saveAndFlush(S user);
+
+    @Override
+    <S extends User> List<S> saveAll(Iterable<S> users);
+
+    // Keyset page: WHERE id > ? ORDER BY id LIMIT ? (walks the primary key index, no OFFSET, no COUNT)
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Forward-only cursor over the whole table; must be consumed inside a transaction and closed
+    @Query("select u from User u order by u.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<User> streamAllByOrderByIdAsc();
+
+    /*
+     * Keyset search pages. The ">= from" bound lets H2 start an index range scan at the cursor, and
+     * "(key > from or id > afterId)" then skips the rows of the previous page that share its last key.
+     * The first page passes the lower bound as "from" and 0 as afterId.
+     */
+
+    // Range scan on idx_users_age_id
+    @Query("select u from User u where u.age >= :fromAge and u.age <= :maxAge " +
+            "and (u.age > :fromAge or u.id > :afterId) order by u.age, u.id")
+    List<User> searchByAge(Integer fromAge, Integer maxAge, Long afterId, Limit limit);
+
+    // Range scan on idx_users_name_id; the age bounds are applied to the rows the scan returns
+    @Query("select u from User u where u.name >= :fromName and u.name like :namePattern escape '\\' " +
+            "and (u.name > :fromName or u.id > :afterId) and u.age between :minAge and :maxAge " +
+            "order by u.name, u.id")
+    List<User> searchByNamePrefix(String namePattern, String fromName, Long afterId,
+                                  Integer minAge, Integer maxAge, Limit limit);
+
+    // Version only, for conditional requests that must not load or serialize the entity
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    // Users per age, for the statistics recompute; walks idx_users_age_id
+    @Query("select u.age, count(u) from User u group by u.age")
+    List<Object[]> countUsersByAge();
+}
@@ -0,0 +1,56 @@
+package com.QA.demo.repository;
+
+import com.QA.demo.model.User;
+import com.QA.demo.model.UserFields;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    // Drop a row from the persistence context once it has been consumed, so long scans stay flat
+    void detach(User user);
+
+    // Push pending inserts to the database as JDBC batches and start a fresh persistence context
+    void flushAndClear();
+
+    /*
+     * Keyset page of projections: SELECTs only the given columns (and always id, for the cursor) as
+     * scalars, so no entity is built, snapshotted or dirty-checked. A null limit returns every row.
+     */
+    List<UserFields> findFieldsByIdGreaterThan(Collection<String> fields, Long afterId, Integer limit);
+
+    /*
+     * Set-based writes that return the row as it was before the write, or empty when no row has the
+     * id (or, with versions, when the row's version is not one of them). The old age, email and version feed
+     * the statistics, the cache invalidation and the ETag.
+     */
+
+    Optional<PreviousRow> deleteUserById(Long id);
+
+    Optional<PreviousRow> deleteUserByIdAndVersionIn(Long id, Collection<Long> versions);
+
+    Optional<PreviousRow> updateUserById(Long id, String name, String email, Integer age);
+
+    Optional<PreviousRow> updateUserByIdAndVersionIn(Long id, Collection<Long> versions, String name, String email,
+                                                    Integer age);
+
+    /*
+     * Change marker of the users table, see UserTableVersion: one counter row that every write
+     * transaction increments just before it commits. Empty until the row has been created.
+     */
+
+    void createChangeCounterIfAbsent();
+
+    void incrementChangeCounter();
+
+    Optional<ChangeCounter> findChangeCounter();
+
+    // Row state before a set-based write
+    record PreviousRow(Integer age, String email, Long version) {
+    }
+
+    // Marker state: when the counter row was created and how many write transactions it has seen
+    record ChangeCounter(Long epoch, Long changes) {
+    }
+}
@@ -0,0 +1,205 @@
+package com.QA.demo.repository;
+
+import com.QA.demo.model.User;
+import com.QA.demo.model.UserChangeCounter;
+import com.QA.demo.model.UserFields;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final boolean deltaTablesEnabled;
+
+    // Resolved on first write, once the dialect is known
+    private volatile Boolean deltaTables;
+
+    public UserRepositoryCustomImpl(@Value("${user.repository.delta-tables:true}") boolean deltaTablesEnabled) {
+        this.deltaTablesEnabled = deltaTablesEnabled;
+    }
+
+    @Override
+    public void detach(User user) {
+        entityManager.detach(user);
+    }
+
+    @Override
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public List<UserFields> findFieldsByIdGreaterThan(Collection<String> fields, Long afterId, Integer limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<User> user = query.from(User.class);
+
+        List<Selection<?>> columns = new ArrayList<>();
+        columns.add(user.get("id").alias("id"));
+        for (String field : fields) {
+            if (!field.equals("id")) {
+                columns.add(user.get(field).alias(field));
+            }
+        }
+        query.multiselect(columns)
+                .where(builder.greaterThan(user.get("id"), afterId))
+                .orderBy(builder.asc(user.get("id")));
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (limit != null) {
+            typed.setMaxResults(limit);
+        }
+        List<Tuple> rows = typed.getResultList();
+        List<UserFields> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            result.add(new UserFields(
+                    row.get("id", Long.class),
+                    fields.contains("name") ? row.get("name", String.class) : null,
+                    fields.contains("email") ? row.get("email", String.class) : null,
+                    fields.contains("age") ? row.get("age", Integer.class) : null,
+                    fields.contains("version") ? row.get("version", Long.class) : null));
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<PreviousRow> deleteUserById(Long id) {
+        return write(id, null, null, null, null, false);
+    }
+
+    @Override
+    public Optional<PreviousRow> deleteUserByIdAndVersionIn(Long id, Collection<Long> versions) {
+        return write(id, versions, null, null, null, false);
+    }
+
+    @Override
+    public Optional<PreviousRow> updateUserById(Long id, String name, String email, Integer age) {
+        return write(id, null, name, email, age, true);
+    }
+
+    @Override
+    public Optional<PreviousRow> updateUserByIdAndVersionIn(Long id, Collection<Long> versions, String name, String email,
+                                                           Integer age) {
+        return write(id, versions, name, email, age, true);
+    }
+
+    private Optional<PreviousRow> write(Long id, Collection<Long> versions, String name, String email, Integer age, boolean update) {
+        if (versions != null && versions.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<PreviousRow> previous = deltaTables()
+                ? writeThroughDeltaTable(id, versions, name, email, age, update)
+                : writeAfterLockingRead(id, versions, name, email, age, update);
+        // Like @Modifying(clearAutomatically = true), but only for the row written: a managed copy would be stale
+        if (previous.isPresent()) {
+            entityManager.detach(entityManager.getReference(User.class, id));
+        }
+        return previous;
+    }
+
+    /*
+     * H2: one statement through the data change delta table, OLD TABLE (...), which returns the rows
+     * as they were before the UPDATE or DELETE. Declaring users as the query space makes Hibernate
+     * flush pending User changes first, as it would for a bulk JPQL statement.
+     */
+    private Optional<PreviousRow> writeThroughDeltaTable(Long id, Collection<Long> versions, String name, String email,
+                                                         Integer age, boolean update) {
+        String statement = update
+                ? "UPDATE users SET name = :name, email = :email, age = :age, version = version + 1 WHERE id = :id"
+                : "DELETE FROM users WHERE id = :id";
+        if (versions != null) {
+            statement += " AND version IN (:versions)";
+        }
+        Query query = entityManager.createNativeQuery("SELECT age, email, version FROM OLD TABLE (" + statement + ")");
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(User.class);
+        query.setParameter("id", id);
+        if (versions != null) {
+            query.setParameter("versions", versions);
+        }
+        if (update) {
+            query.setParameter("name", name).setParameter("email", email).setParameter("age", age);
+        }
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.get(0);
+        return Optional.of(new PreviousRow(((Number) row[0]).intValue(), (String) row[1], ((Number) row[2]).longValue()));
+    }
+
+    // Any other database: SELECT ... FOR UPDATE, then a bulk JPQL UPDATE or DELETE of the locked row
+    private Optional<PreviousRow> writeAfterLockingRead(Long id, Collection<Long> versions, String name, String email,
+                                                        Integer age, boolean update) {
+        List<PreviousRow> rows = entityManager.createQuery(
+                        "select new com.QA.demo.repository.UserRepositoryCustom$PreviousRow(u.age, u.email, u.version) " +
+                                "from User u where u.id = :id", PreviousRow.class)
+                .setParameter("id", id)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        if (rows.isEmpty() || (versions != null && !versions.contains(rows.get(0).version()))) {
+            return Optional.empty();
+        }
+        Query write = update
+                ? entityManager.createQuery("update User u set u.name = :name, u.email = :email, u.age = :age, " +
+                        "u.version = u.version + 1 where u.id = :id")
+                        .setParameter("name", name).setParameter("email", email).setParameter("age", age)
+                : entityManager.createQuery("delete from User u where u.id = :id");
+        write.setParameter("id", id).executeUpdate();
+        return Optional.of(rows.get(0));
+    }
+
+    @Override
+    public void createChangeCounterIfAbsent() {
+        if (entityManager.find(UserChangeCounter.class, UserChangeCounter.ID) == null) {
+            entityManager.persist(new UserChangeCounter(UserChangeCounter.ID, System.currentTimeMillis(), 0L));
+        }
+    }
+
+    @Override
+    public void incrementChangeCounter() {
+        entityManager.createQuery("update UserChangeCounter c set c.changes = c.changes + 1 where c.id = :id")
+                .setParameter("id", UserChangeCounter.ID)
+                .executeUpdate();
+    }
+
+    @Override
+    public Optional<ChangeCounter> findChangeCounter() {
+        return entityManager.createQuery(
+                        "select new com.QA.demo.repository.UserRepositoryCustom$ChangeCounter(c.epoch, c.changes) " +
+                                "from UserChangeCounter c where c.id = :id", ChangeCounter.class)
+                .setParameter("id", UserChangeCounter.ID)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    private boolean deltaTables() {
+        Boolean resolved = deltaTables;
+        if (resolved == null) {
+            resolved = deltaTablesEnabled && entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof H2Dialect;
+            deltaTables = resolved;
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,50 @@
+package com.QA.demo.repository;
+
+import com.QA.demo.model.User;
+import org.springframework.data.domain.Limit;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The user operations the services depend on, and nothing else. {@link UserRepository} provides
+ * them through Spring Data JPA; the {@code in-memory} profile implements this interface alone, so
+ * it does not have to carry the rest of {@code JpaRepository}.
+ */
+public interface UserStore extends UserRepositoryCustom {
+
+    Optional<User> findById(Long id);
+
+    Optional<User> findByEmail(String email);
+
+    boolean existsById(Long id);
+
+    boolean existsByEmail(String email);
+
+    long count();
+
+    List<User> findAll();
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    Stream<User> streamAllByOrderByIdAsc();
+
+    List<User> searchByAge(Integer fromAge, Integer maxAge, Long afterId, Limit limit);
+
+    List<User> searchByNamePrefix(String namePattern, String fromName, Long afterId,
+                                  Integer minAge, Integer maxAge, Limit limit);
+
+    Optional<Long> findVersionById(Long id);
+
+    List<String> findExistingEmails(Collection<String> emails);
+
+    List<Object[]> countUsersByAge();
+
+    <S extends User> S saveAndFlush(S user);
+
+    <S extends User> List<S> saveAll(Iterable<S> users);
+
+    void flush();
+}
@@ -0,0 +1,90 @@
+package com.QA.demo.repository.memory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction manager for the in-memory profile. There is no resource to begin or commit; it
+ * only runs the standard transaction synchronization, which {@link InMemoryUserRepository} uses
+ * for its per-transaction undo log and dirty tracking, and which delivers the after-commit
+ * {@code UserChangedEvent}s exactly as with JPA.
+ */
+@Component("transactionManager")
+@Profile("in-memory")
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Transaction((Holder) TransactionSynchronizationManager.getResource(this));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((Transaction) transaction).holder != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        Holder holder = new Holder();
+        ((Transaction) transaction).holder = holder;
+        TransactionSynchronizationManager.bindResource(this, holder);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((Transaction) transaction).holder = null;
+        return TransactionSynchronizationManager.unbindResource(this);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(this, suspendedResources);
+    }
+
+    // Writes were applied as they happened; InMemoryUserRepository undoes them on rollback
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+
+    // A participating method failed: the outer transaction must roll back as well
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((Transaction) status.getTransaction()).holder.rollbackOnly = true;
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(this);
+    }
+
+    // Shared by the outer transaction and every method participating in it
+    private static final class Holder {
+        volatile boolean rollbackOnly;
+    }
+
+    private static final class Transaction implements SmartTransactionObject {
+        Holder holder;
+
+        Transaction(Holder holder) {
+            this.holder = holder;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return holder != null && holder.rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
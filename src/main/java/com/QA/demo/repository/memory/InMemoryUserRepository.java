@@ -0,0 +1,563 @@
+package com.QA.demo.repository.memory;
+
+import com.QA.demo.model.User;
+import com.QA.demo.model.UserFields;
+import com.QA.demo.repository.UserStore;
+import org.jctools.maps.NonBlockingHashMapLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserStore} without a database, for the {@code in-memory} profile (edge deployments
+ * and tests), with the same observable behaviour as the JPA repository.
+ *
+ * <p>Storage:
+ * <ul>
+ *     <li>rows are immutable snapshots in a {@link NonBlockingHashMapLong} keyed by the primitive
+ *     id. A write replaces the snapshot and never mutates it, so reads take no lock.</li>
+ *     <li>email uniqueness is a {@link ConcurrentHashMap} of email to id. A write claims the
+ *     email with {@code putIfAbsent} before the row becomes visible, so two writers can never
+ *     both own one.</li>
+ *     <li>skip-list indexes on (id), (age, id) and (name, id) serve the keyset pages and the
+ *     search, the same way the database indexes do. The id index holds only ids, which never
+ *     change, and is resolved against the row map, so id-ordered reads see every row exactly
+ *     once, in its current version.</li>
+ * </ul>
+ * Writes to one row are serialized on a striped lock. Callers always get copies, never the
+ * snapshots.
+ *
+ * <p>Transactions give atomicity, not isolation. Each write is visible to other threads at once.
+ * Inside a transaction it is recorded in an undo log that is replayed on rollback. Entities
+ * loaded in a read-write transaction are dirty-checked on {@link #flush()} and before commit,
+ * with an optimistic version check, like a persistence context. Rollback is best effort, see
+ * {@link #undo} and the limitation noted in {@code application-in-memory.properties}.
+ */
+@Repository
+@Profile("in-memory")
+public class InMemoryUserRepository implements UserStore {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryUserRepository.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final NonBlockingHashMapLong<User> rows = new NonBlockingHashMapLong<>();
+    private final ConcurrentHashMap<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<User> byAge = new ConcurrentSkipListSet<>(
+            Comparator.comparing(User::getAge).thenComparing(User::getId));
+    private final ConcurrentSkipListSet<User> byName = new ConcurrentSkipListSet<>(
+            Comparator.comparing(User::getName).thenComparing(User::getId));
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final AtomicLong sequence = new AtomicLong();
+    // Change marker; the rows live and die with the process, and so does the marker
+    private final long changeEpoch = System.currentTimeMillis();
+    private final AtomicLong changes = new AtomicLong();
+
+    public InMemoryUserRepository() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // --- Reads ---
+
+    @Override
+    public Optional<User> findById(Long id) {
+        User row = rows.get(id.longValue());
+        return row == null ? Optional.empty() : Optional.of(load(row));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        User row = rowByEmail(email);
+        return row == null ? Optional.empty() : Optional.of(load(row));
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return rowByEmail(email) != null;
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return rows.containsKey(id.longValue());
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return Optional.ofNullable(rows.get(id.longValue())).map(User::getVersion);
+    }
+
+    @Override
+    public List<String> findExistingEmails(Collection<String> emails) {
+        List<String> existing = new ArrayList<>();
+        for (String email : emails) {
+            if (rowByEmail(email) != null) {
+                existing.add(email);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public long count() {
+        return rows.size();
+    }
+
+    @Override
+    public List<User> findAll() {
+        return take(rowsAfter(Long.MIN_VALUE).iterator(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit) {
+        return take(rowsAfter(id).iterator(), max(limit));
+    }
+
+    @Override
+    public Stream<User> streamAllByOrderByIdAsc() {
+        return rowsAfter(Long.MIN_VALUE).map(InMemoryUserRepository::copy);
+    }
+
+    // Same predicate as the JPQL: everything after (fromAge, afterId) in (age, id) order, up to maxAge
+    @Override
+    public List<User> searchByAge(Integer fromAge, Integer maxAge, Long afterId, Limit limit) {
+        List<User> users = new ArrayList<>();
+        int max = max(limit);
+        for (User row : byAge.tailSet(probe(afterId, null, fromAge), false)) {
+            if (users.size() == max || row.getAge() > maxAge) {
+                break;
+            }
+            users.add(load(row));
+        }
+        return users;
+    }
+
+    @Override
+    public List<User> searchByNamePrefix(String namePattern, String fromName, Long afterId,
+                                         Integer minAge, Integer maxAge, Limit limit) {
+        String prefix = unescapeLikePrefix(namePattern);
+        List<User> users = new ArrayList<>();
+        int max = max(limit);
+        for (User row : byName.tailSet(probe(afterId, fromName, null), false)) {
+            if (users.size() == max || !row.getName().startsWith(prefix)) {
+                break;
+            }
+            if (row.getAge() >= minAge && row.getAge() <= maxAge) {
+                users.add(load(row));
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public List<Object[]> countUsersByAge() {
+        List<Object[]> counts = new ArrayList<>();
+        Integer age = null;
+        long count = 0;
+        for (User row : byAge) {
+            if (!row.getAge().equals(age)) {
+                if (age != null) {
+                    counts.add(new Object[]{age, count});
+                }
+                age = row.getAge();
+                count = 0;
+            }
+            count++;
+        }
+        if (age != null) {
+            counts.add(new Object[]{age, count});
+        }
+        return counts;
+    }
+
+    @Override
+    public List<UserFields> findFieldsByIdGreaterThan(Collection<String> fields, Long afterId, Integer limit) {
+        List<UserFields> result = new ArrayList<>();
+        int max = limit == null ? Integer.MAX_VALUE : limit;
+        Iterator<User> rowsInOrder = rowsAfter(afterId).iterator();
+        while (result.size() < max && rowsInOrder.hasNext()) {
+            User row = rowsInOrder.next();
+            result.add(new UserFields(row.getId(),
+                    fields.contains("name") ? row.getName() : null,
+                    fields.contains("email") ? row.getEmail() : null,
+                    fields.contains("age") ? row.getAge() : null,
+                    fields.contains("version") ? row.getVersion() : null));
+        }
+        return result;
+    }
+
+    // --- Set-based writes ---
+
+    @Override
+    public Optional<PreviousRow> deleteUserById(Long id) {
+        return delete(id, null);
+    }
+
+    @Override
+    public Optional<PreviousRow> deleteUserByIdAndVersionIn(Long id, Collection<Long> versions) {
+        return delete(id, versions);
+    }
+
+    @Override
+    public Optional<PreviousRow> updateUserById(Long id, String name, String email, Integer age) {
+        return update(id, null, name, email, age);
+    }
+
+    @Override
+    public Optional<PreviousRow> updateUserByIdAndVersionIn(Long id, Collection<Long> versions, String name, String email,
+                                                           Integer age) {
+        return update(id, versions, name, email, age);
+    }
+
+    private Optional<PreviousRow> delete(Long id, Collection<Long> expectedVersions) {
+        synchronized (lockFor(id)) {
+            User current = rows.get(id.longValue());
+            if (current == null || (expectedVersions != null && !expectedVersions.contains(current.getVersion()))) {
+                return Optional.empty();
+            }
+            write(id, current, null);
+            return Optional.of(previous(current));
+        }
+    }
+
+    private Optional<PreviousRow> update(Long id, Collection<Long> expectedVersions, String name, String email, Integer age) {
+        synchronized (lockFor(id)) {
+            User current = rows.get(id.longValue());
+            if (current == null || (expectedVersions != null && !expectedVersions.contains(current.getVersion()))) {
+                return Optional.empty();
+            }
+            User updated = new User(id, name, email, age);
+            updated.setVersion(current.getVersion() + 1);
+            write(id, current, updated);
+            return Optional.of(previous(current));
+        }
+    }
+
+    private static PreviousRow previous(User row) {
+        return new PreviousRow(row.getAge(), row.getEmail(), row.getVersion());
+    }
+
+    // --- Entity writes ---
+
+    private <S extends User> S save(S user) {
+        if (user.getId() == null || user.getVersion() == null || !rows.containsKey(user.getId().longValue())) {
+            return insert(user);
+        }
+        Long id = user.getId();
+        synchronized (lockFor(id)) {
+            User current = rows.get(id.longValue());
+            if (current == null || !current.getVersion().equals(user.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(User.class, id);
+            }
+            User updated = snapshot(user, id, current.getVersion() + 1);
+            write(id, current, updated);
+            user.setVersion(updated.getVersion());
+        }
+        return user;
+    }
+
+    private <S extends User> S insert(S user) {
+        long id = sequence.incrementAndGet();
+        User row = snapshot(user, id, 0L);
+        synchronized (lockFor(id)) {
+            write(id, null, row);
+        }
+        // Like persist: the caller's instance gets the generated id and becomes managed
+        user.setId(id);
+        user.setVersion(0L);
+        track(user, row);
+        return user;
+    }
+
+    @Override
+    public <S extends User> S saveAndFlush(S user) {
+        S saved = save(user);
+        flush();
+        return saved;
+    }
+
+    @Override
+    public <S extends User> List<S> saveAll(Iterable<S> users) {
+        List<S> saved = new ArrayList<>();
+        for (S user : users) {
+            saved.add(save(user));
+        }
+        return saved;
+    }
+
+    // --- Persistence context emulation ---
+
+    // Writes changed managed entities back, each with a version check, like a Hibernate flush
+    @Override
+    public void flush() {
+        UnitOfWork unitOfWork = currentUnitOfWork();
+        if (unitOfWork == null) {
+            return;
+        }
+        for (Managed managed : unitOfWork.managed.values()) {
+            User entity = managed.entity;
+            User loaded = managed.loaded;
+            if (Objects.equals(entity.getName(), loaded.getName()) && Objects.equals(entity.getEmail(), loaded.getEmail())
+                    && Objects.equals(entity.getAge(), loaded.getAge())) {
+                continue;
+            }
+            Long id = loaded.getId();
+            synchronized (lockFor(id)) {
+                User current = rows.get(id.longValue());
+                if (current == null || !current.getVersion().equals(loaded.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(User.class, id);
+                }
+                User updated = snapshot(entity, id, current.getVersion() + 1);
+                write(id, current, updated);
+                entity.setVersion(updated.getVersion());
+                managed.loaded = updated;
+            }
+        }
+    }
+
+    @Override
+    public void flushAndClear() {
+        flush();
+        UnitOfWork unitOfWork = currentUnitOfWork();
+        if (unitOfWork != null) {
+            unitOfWork.managed.clear();
+        }
+    }
+
+    @Override
+    public void detach(User user) {
+        UnitOfWork unitOfWork = currentUnitOfWork();
+        if (unitOfWork != null && user.getId() != null) {
+            unitOfWork.managed.remove(user.getId());
+        }
+    }
+
+    // --- Change counter ---
+
+    @Override
+    public void createChangeCounterIfAbsent() {
+    }
+
+    @Override
+    public void incrementChangeCounter() {
+        changes.incrementAndGet();
+    }
+
+    @Override
+    public Optional<ChangeCounter> findChangeCounter() {
+        return Optional.of(new ChangeCounter(changeEpoch, changes.get()));
+    }
+
+    // A copy of the row, tracked for dirty checking when loaded in a read-write transaction
+    private User load(User row) {
+        User entity = copy(row);
+        track(entity, row);
+        return entity;
+    }
+
+    private void track(User entity, User row) {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        UnitOfWork unitOfWork = currentUnitOfWork();
+        if (unitOfWork != null) {
+            unitOfWork.managed.put(row.getId(), new Managed(entity, row));
+        }
+    }
+
+    private UnitOfWork currentUnitOfWork() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        UnitOfWork unitOfWork = (UnitOfWork) TransactionSynchronizationManager.getResource(this);
+        if (unitOfWork == null) {
+            unitOfWork = new UnitOfWork();
+            TransactionSynchronizationManager.bindResource(this, unitOfWork);
+            TransactionSynchronizationManager.registerSynchronization(unitOfWork);
+        }
+        return unitOfWork;
+    }
+
+    // Applies the change and records its inverse in the current transaction's undo log
+    private void write(Long id, User before, User after) {
+        apply(id, before, after);
+        UnitOfWork unitOfWork = currentUnitOfWork();
+        if (unitOfWork != null) {
+            unitOfWork.undo.push(() -> undo(id, after, before));
+        }
+    }
+
+    /*
+     * The only place rows change; the caller holds the row's stripe lock. A null "before" inserts,
+     * a null "after" deletes. A new email is claimed before the row becomes visible, and the old
+     * one is released after, so a reader may briefly see both emails pointing at the row (the
+     * email lookups check the row) but never a row whose email another row owns.
+     *
+     * The (age, id) and (name, id) entries are snapshots, removed and re-added one at a time, so
+     * a search or a statistics recompute running during an update is only weakly consistent:
+     * it can miss the row being updated, or return it in both its old and new version.
+     */
+    private void apply(Long id, User before, User after) {
+        boolean emailChanged = before == null || after == null || !before.getEmail().equals(after.getEmail());
+        if (after != null && emailChanged) {
+            Long owner = idsByEmail.putIfAbsent(after.getEmail(), id);
+            if (owner != null && !owner.equals(id)) {
+                throw new DuplicateKeyException("Email already exists: " + after.getEmail());
+            }
+        }
+        if (before != null) {
+            byAge.remove(before);
+            byName.remove(before);
+        }
+        if (after == null) {
+            rows.remove(id.longValue());
+            ids.remove(id);
+        } else {
+            rows.put(id.longValue(), after);
+            // Only new on insert: an update leaves the id index alone
+            ids.add(id);
+            byAge.add(after);
+            byName.add(after);
+        }
+        if (before != null && emailChanged) {
+            idsByEmail.remove(before.getEmail(), id);
+        }
+    }
+
+    // Best effort: a write committed by another thread since then may have changed the row again or
+    // taken the email back; the newer state is kept and the rollback goes on (see the profile properties)
+    private void undo(Long id, User written, User previous) {
+        synchronized (lockFor(id)) {
+            User current = rows.get(id.longValue());
+            // Snapshots are never mutated, so identity tells whether the row is still the one written
+            if (current != written) {
+                log.warn("Cannot roll back user {}: the row was changed again by another transaction", id);
+                return;
+            }
+            try {
+                apply(id, written, previous);
+            } catch (DuplicateKeyException e) {
+                log.warn("Cannot roll back user {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    private User rowByEmail(String email) {
+        Long id = idsByEmail.get(email);
+        if (id == null) {
+            return null;
+        }
+        User row = rows.get(id.longValue());
+        return row != null && row.getEmail().equals(email) ? row : null;
+    }
+
+    // Current rows in id order; an id whose row was deleted after the index was read is skipped
+    private Stream<User> rowsAfter(Long afterId) {
+        return ids.tailSet(afterId, false).stream()
+                .map(id -> rows.get(id.longValue()))
+                .filter(Objects::nonNull);
+    }
+
+    private Object lockFor(Long id) {
+        return locks[(int) (id & (LOCK_STRIPES - 1))];
+    }
+
+    private List<User> take(Iterator<User> rows, int max) {
+        List<User> users = new ArrayList<>();
+        while (users.size() < max && rows.hasNext()) {
+            users.add(load(rows.next()));
+        }
+        return users;
+    }
+
+    private static int max(Limit limit) {
+        return limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+    }
+
+    // Search key for the index tail sets; comparators only look at (age or name, id)
+    private static User probe(Long id, String name, Integer age) {
+        return new User(id, name, null, age);
+    }
+
+    // UserService escapes the prefix for LIKE and appends '%'; here it is matched literally
+    private static String unescapeLikePrefix(String pattern) {
+        StringBuilder prefix = new StringBuilder(pattern.length());
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                prefix.append(pattern.charAt(++i));
+            } else if (c != '%') {
+                prefix.append(c);
+            }
+        }
+        return prefix.toString();
+    }
+
+    private static User snapshot(User source, Long id, Long version) {
+        User row = new User(id, source.getName(), source.getEmail(), source.getAge());
+        row.setVersion(version);
+        return row;
+    }
+
+    private static User copy(User row) {
+        return snapshot(row, row.getId(), row.getVersion());
+    }
+
+    private static final class Managed {
+        final User entity;
+        User loaded;
+
+        Managed(User entity, User loaded) {
+            this.entity = entity;
+            this.loaded = loaded;
+        }
+    }
+
+    // Per-transaction state, bound to the transaction through the synchronization manager
+    private final class UnitOfWork implements TransactionSynchronization {
+        final Deque<Runnable> undo = new ArrayDeque<>();
+        final Map<Long, Managed> managed = new HashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!readOnly) {
+                // Qualified: TransactionSynchronization has a no-op flush() of its own
+                InMemoryUserRepository.this.flush();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryUserRepository.this);
+            if (status != STATUS_COMMITTED) {
+                while (!undo.isEmpty()) {
+                    undo.pop().run();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.QA.demo.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method that always borrows a pooled connection. With virtual threads on,
+ * {@code DatabaseConcurrencyLimiter} makes the caller take a permit before the method starts,
+ * so before its transaction checks out a connection. Methods that are often answered from
+ * memory (cache hits, stats) are left unmarked; their cache misses are limited at the
+ * repository call instead.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface DatabaseBound {
+}
@@ -0,0 +1,12 @@
+package com.QA.demo.service;
+
+/**
+ * Thrown when no database permit freed up in time (see {@code DatabaseConcurrencyLimiter}). The
+ * caller should retry later; the call never reached the database.
+ */
+public class DatabaseBusyException extends UserException {
+
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
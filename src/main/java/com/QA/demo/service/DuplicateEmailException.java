@@ -0,0 +1,12 @@
+package com.QA.demo.service;
+
+/**
+ * Thrown when another user already has the email, whether the cache, a reservation or the unique
+ * constraint found it.
+ */
+public class DuplicateEmailException extends UserException {
+
+    public DuplicateEmailException() {
+        super("Email already exists");
+    }
+}
@@ -0,0 +1,75 @@
+package com.QA.demo.service;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The If-Match precondition of a write. {@code *} matches any version of an existing user; a list
+ * of entity tags matches when the user's version is one of them. Weak tags and tags that are not
+ * a version never match, since user ETags are strong version numbers.
+ */
+public record IfMatch(boolean any, Set<Long> versions) {
+
+    public static final IfMatch ANY = new IfMatch(true, Set.of());
+
+    public static IfMatch version(long version) {
+        return new IfMatch(false, Set.of(version));
+    }
+
+    /**
+     * Parses an If-Match header value, e.g. {@code "1", "2"} or {@code *}.
+     *
+     * @return the precondition, or null without a header (the write is unconditional)
+     * @throws InvalidRequestException when the header is not {@code *} or a list of quoted tags
+     */
+    public static IfMatch parse(String header) {
+        if (header == null) {
+            return null;
+        }
+        if (header.trim().equals("*")) {
+            return ANY;
+        }
+        Set<Long> versions = new LinkedHashSet<>();
+        int position = 0;
+        boolean tagSeen = false;
+        while (position < header.length()) {
+            char c = header.charAt(position);
+            if (c == ',' || c == ' ' || c == '\t') {
+                position++;
+                continue;
+            }
+            boolean weak = header.startsWith("W/", position);
+            if (weak) {
+                position += 2;
+            }
+            // An entity tag may itself contain commas, so tags are read quote to quote
+            int end = position < header.length() && header.charAt(position) == '"'
+                    ? header.indexOf('"', position + 1)
+                    : -1;
+            if (end < 0) {
+                throw new InvalidRequestException("If-Match must be * or a list of entity tags");
+            }
+            if (!weak) {
+                parseVersion(header.substring(position + 1, end), versions);
+            }
+            tagSeen = true;
+            position = end + 1;
+        }
+        if (!tagSeen) {
+            throw new InvalidRequestException("If-Match must be * or a list of entity tags");
+        }
+        return new IfMatch(false, Set.copyOf(versions));
+    }
+
+    public boolean matches(Long version) {
+        return any || versions.contains(version);
+    }
+
+    private static void parseVersion(String tag, Set<Long> versions) {
+        try {
+            versions.add(Long.valueOf(tag));
+        } catch (NumberFormatException e) {
+            // Not one of our ETags, so it cannot match
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.QA.demo.service;
+
+/**
+ * Thrown when the request itself is wrong: a user that breaks the field rules, or a bad limit,
+ * cursor, field list or batch size.
+ */
+public class InvalidRequestException extends UserException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
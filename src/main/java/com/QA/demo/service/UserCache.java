@@ -0,0 +1,142 @@
+package com.QA.demo.service;
+
+import com.QA.demo.model.User;
+import com.QA.demo.model.UserCacheStats;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache in front of the user lookups (Caffeine, W-TinyLFU eviction).
+ *
+ * <p>Users are cached by id only. The email side is an index of email to id, and every hit is
+ * checked against the cached user's current email, so a stale index entry costs a miss, never
+ * a wrong answer.
+ *
+ * <p>The id cache holds futures. The first reader of a key installs a pending future and loads
+ * the row on its own thread, and concurrent readers of that key wait on the future. No cache
+ * lock is held during the database call. This matters because invalidation runs after commit
+ * while the writer still holds its pooled connection. If invalidation had to wait for a load
+ * that is itself waiting for a connection, the two would deadlock once the pool runs dry.
+ * Invalidation drops the future, including one still loading, so a read that starts after the
+ * commit always loads again and never sees the old value.
+ */
+@Component
+public class UserCache {
+
+    private final AsyncCache<Long, User> usersById;
+    private final Cache<String, Long> idsByEmail;
+
+    public UserCache(@Value("${user.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${user.cache.ttl:10m}") Duration ttl) {
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<User> getById(Long id, Function<Long, Optional<User>> loader) {
+        CompletableFuture<User> pending = new CompletableFuture<>();
+        CompletableFuture<User> cached = usersById.get(id, (key, executor) -> pending);
+        if (cached == pending) {
+            // This thread won the race to load. A null result (a miss) removes the entry, so a user created later is visible at once.
+            try {
+                pending.complete(loader.apply(id).map(this::snapshot).orElse(null));
+            } catch (RuntimeException e) {
+                pending.completeExceptionally(e);
+            }
+        }
+        try {
+            return Optional.ofNullable(cached.join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Cache-only lookup, never goes to the database and never waits for an in-flight load
+    public Optional<User> peek(Long id) {
+        CompletableFuture<User> cached = usersById.getIfPresent(id);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cached.getNow(null));
+    }
+
+    public Optional<User> getByEmail(String email,
+                                     Function<String, Optional<User>> emailLoader,
+                                     Function<Long, Optional<User>> idLoader) {
+        Long id = idsByEmail.getIfPresent(email);
+        if (id != null) {
+            Optional<User> user = getById(id, idLoader);
+            if (user.isPresent() && email.equals(user.get().getEmail())) {
+                return user;
+            }
+            idsByEmail.asMap().remove(email, id);
+        }
+
+        Optional<User> loaded = emailLoader.apply(email);
+        // Only the index is populated here; the user itself enters the cache through getById
+        loaded.ifPresent(user -> idsByEmail.put(email, user.getId()));
+        return loaded.map(this::snapshot);
+    }
+
+    // Exact, not probabilistic: true only if a cached user currently holds this email
+    public boolean containsEmail(String email) {
+        Long id = idsByEmail.getIfPresent(email);
+        if (id == null) {
+            return false;
+        }
+        return peek(id).map(user -> email.equals(user.getEmail())).orElse(false);
+    }
+
+    public void invalidate(Long id, String email) {
+        if (id != null) {
+            usersById.synchronous().invalidate(id);
+        }
+        if (email != null) {
+            idsByEmail.invalidate(email);
+        }
+    }
+
+    // Drops every entry, for when the cache may hold rows whose transaction rolled back
+    public void invalidateAll() {
+        usersById.synchronous().invalidateAll();
+        idsByEmail.invalidateAll();
+    }
+
+    // Default phase is AFTER_COMMIT; without a transaction the write has already committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.getUserId(), event.getPreviousEmail());
+    }
+
+    public UserCacheStats getStats() {
+        Cache<Long, User> users = usersById.synchronous();
+        CacheStats stats = users.stats().plus(idsByEmail.stats());
+        return new UserCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                stats.hitRate(), users.estimatedSize());
+    }
+
+    // Cached users are shared between threads, so never hand out the managed entity itself
+    private User snapshot(User user) {
+        User copy = new User(user.getId(), user.getName(), user.getEmail(), user.getAge());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,79 @@
+package com.QA.demo.service;
+
+import com.QA.demo.model.User;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Published by {@link UserService} whenever a user row is written. Listeners that keep derived
+ * state (caches, counters) should consume it after commit.
+ */
+public class UserChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Long userId;
+
+    // Email the row had before the write; null for creations
+    private final String previousEmail;
+
+    // Change in the number of users per age caused by the write, e.g. {30=-1, 31=1} for a birthday
+    private final Map<Integer, Integer> ageDelta;
+
+    public UserChangedEvent(Type type, Long userId, String previousEmail, Map<Integer, Integer> ageDelta) {
+        this.type = type;
+        this.userId = userId;
+        this.previousEmail = previousEmail;
+        this.ageDelta = ageDelta;
+    }
+
+    // Either age may be null: no previous row for a creation, no new row for a deletion
+    public static Map<Integer, Integer> ageDelta(Integer previousAge, Integer newAge) {
+        Map<Integer, Integer> delta = new HashMap<>(4);
+        if (previousAge != null) {
+            delta.merge(previousAge, -1, Integer::sum);
+        }
+        if (newAge != null) {
+            delta.merge(newAge, 1, Integer::sum);
+        }
+        delta.values().removeIf(change -> change == 0);
+        return delta;
+    }
+
+    public static Map<Integer, Integer> ageDelta(Collection<User> created) {
+        Map<Integer, Integer> delta = new HashMap<>();
+        for (User user : created) {
+            delta.merge(user.getAge(), 1, Integer::sum);
+        }
+        return delta;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getPreviousEmail() {
+        return previousEmail;
+    }
+
+    public Map<Integer, Integer> getAgeDelta() {
+        return ageDelta;
+    }
+
+    @Override
+    public String toString() {
+        return "UserChangedEvent{" +
+                "type=" + type +
+                ", userId=" + userId +
+                ", previousEmail='" + previousEmail + '\'' +
+                ", ageDelta=" + ageDelta +
+                '}';
+    }
+}
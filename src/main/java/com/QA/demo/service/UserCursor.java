@@ -0,0 +1,100 @@
+package com.QA.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor. Clients must treat the value as a token; internally it
+ * is the sort key and id of the last row of the previous page, base64url-encoded.
+ */
+public final class UserCursor {
+
+    private static final String PREFIX = "id:";
+    private static final String AGE_PREFIX = "age:";
+    private static final String NAME_PREFIX = "name:";
+
+    private UserCursor() {}
+
+    /** Position after the last row of a page ordered by a (sort key, id) index. */
+    public static final class Keyset<K> {
+        private final K sortKey;
+        private final long id;
+
+        Keyset(K sortKey, long id) {
+            this.sortKey = sortKey;
+            this.id = id;
+        }
+
+        public K getSortKey() {
+            return sortKey;
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+
+    public static String encode(Long lastId) {
+        return toToken(PREFIX + lastId);
+    }
+
+    public static Long decode(String cursor) {
+        String raw = fromToken(cursor);
+        if (!raw.startsWith(PREFIX)) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+        return parseId(raw.substring(PREFIX.length()));
+    }
+
+    public static String encodeAge(Integer age, Long lastId) {
+        return toToken(AGE_PREFIX + age + ":" + lastId);
+    }
+
+    public static Keyset<Integer> decodeAge(String cursor) {
+        String raw = fromToken(cursor);
+        String[] parts = raw.split(":", 3);
+        if (!raw.startsWith(AGE_PREFIX) || parts.length != 3) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+        try {
+            return new Keyset<>(Integer.parseInt(parts[1]), parseId(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+
+    // The id goes before the name, so the name may itself contain ':'
+    public static String encodeName(String name, Long lastId) {
+        return toToken(NAME_PREFIX + lastId + ":" + name);
+    }
+
+    public static Keyset<String> decodeName(String cursor) {
+        String raw = fromToken(cursor);
+        String[] parts = raw.split(":", 3);
+        if (!raw.startsWith(NAME_PREFIX) || parts.length != 3) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+        return new Keyset<>(parts[2], parseId(parts[1]));
+    }
+
+    private static String toToken(String raw) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fromToken(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+
+    private static Long parseId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.QA.demo.service;
+
+/**
+ * Base of the expected failures of the user API: bad input, a taken email, a missing user, a
+ * stale version, no capacity. {@code UserExceptionHandler} turns each subtype into its status.
+ *
+ * <p>These carry no stack trace. They are outcomes, not bugs, and filling one in walks every frame
+ * of the request thread, which a flood of invalid signups paid for on each rejection. The message
+ * is all a caller ever reads.
+ */
+public abstract class UserException extends RuntimeException {
+
+    protected UserException(String message) {
+        super(message, null, false, false);
+    }
+
+    protected UserException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
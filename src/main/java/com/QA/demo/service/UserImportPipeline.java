@@ -0,0 +1,341 @@
+package com.QA.demo.service;
+
+import com.QA.demo.model.ImportCheckpoint;
+import com.QA.demo.model.ImportReport;
+import com.QA.demo.model.User;
+import com.QA.demo.repository.ImportCheckpointRepository;
+import com.QA.demo.repository.UserStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk import of users from an NDJSON file (one JSON user object per line).
+ *
+ * <p>Runs as three stages connected by bounded queues, so a slow database pushes back on the
+ * reader instead of buffering the file in memory:
+ * <ol>
+ *     <li>parse - reads and deserializes lines on its own thread</li>
+ *     <li>validate - applies the {@link UserValidator} rules and drops emails already seen in the file</li>
+ *     <li>write - on the calling thread, one transaction per chunk that also advances the checkpoint</li>
+ * </ol>
+ *
+ * <p>The checkpoint row is written in the same transaction as the chunk, so after a crash the
+ * next run for the same file resumes right after the last committed chunk.
+ *
+ * <p>Not available in the in-memory profile, which has no checkpoint table.
+ */
+@Service
+@Profile("!in-memory")
+public class UserImportPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportPipeline.class);
+
+    private static final int CHUNK_QUEUE_CAPACITY = 4;
+    private static final long PROGRESS_INTERVAL_MILLIS = 5_000;
+
+    @Autowired
+    private UserStore userRepository;
+
+    @Autowired
+    private ImportCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Only present with user.write-behind.enabled=true
+    @Autowired
+    private ObjectProvider<UserWriteBehind> writeBehind;
+
+    @Value("${user.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${user.import.queue-capacity:10000}")
+    private int queueCapacity;
+
+    public ImportReport importFile(Path file) throws IOException {
+        if (!Files.isReadable(file)) {
+            throw new IOException("Cannot read import file " + file);
+        }
+        String source = file.toAbsolutePath().normalize().toString();
+        Optional<ImportCheckpoint> resumed = checkpointRepository.findById(source)
+                .filter(checkpoint -> !checkpoint.getCompleted());
+        long resumeAfter = resumed.map(ImportCheckpoint::getLastLine).orElse(0L);
+        long importedBefore = resumed.map(ImportCheckpoint::getImportedCount).orElse(0L);
+        if (resumeAfter > 0) {
+            log.info("Resuming import of {} after line {}, {} users already imported", source, resumeAfter, importedBefore);
+        }
+
+        Progress progress = new Progress(source, resumeAfter, importedBefore);
+        BlockingQueue<ParsedUser> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(CHUNK_QUEUE_CAPACITY);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService stages = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Future<?> parser = stages.submit(() -> {
+                parse(file, resumeAfter, parsed, progress);
+                return null;
+            });
+            Future<?> validator = stages.submit(() -> {
+                validateAndDedupe(parsed, chunks, progress);
+                return null;
+            });
+
+            write(chunks, progress);
+
+            // A failed validator stops draining the parser's queue, so the parser may be stuck in put()
+            try {
+                validator.get();
+            } catch (ExecutionException e) {
+                parser.cancel(true);
+                throw e;
+            }
+            parser.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new RuntimeException("Import failed", e.getCause());
+        } finally {
+            stages.shutdownNow();
+        }
+
+        ImportReport report = progress.toReport();
+        log.info("Import finished: {}", report);
+        return report;
+    }
+
+    private void parse(Path file, long resumeAfter, BlockingQueue<ParsedUser> parsed, Progress progress)
+            throws IOException, InterruptedException {
+        ObjectReader reader = objectMapper.readerFor(User.class);
+        long lineNumber = 0;
+        boolean completed = false;
+        try (BufferedReader lines = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= resumeAfter) {
+                    continue;
+                }
+                progress.linesRead.incrementAndGet();
+                if (line.isBlank()) {
+                    continue;
+                }
+                User user;
+                try {
+                    user = reader.readValue(line);
+                } catch (IOException e) {
+                    user = null;
+                }
+                if (user == null) {
+                    progress.invalid.incrementAndGet();
+                    continue;
+                }
+                parsed.put(new ParsedUser(lineNumber, user));
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            // Keep the flag set so the marker below fails fast instead of blocking on a dead consumer
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            // Always terminate the downstream stages, even when reading fails half way
+            parsed.put(completed ? ParsedUser.end(Math.max(lineNumber, resumeAfter)) : ParsedUser.ABORT);
+        }
+    }
+
+    private void validateAndDedupe(BlockingQueue<ParsedUser> parsed, BlockingQueue<Chunk> chunks, Progress progress)
+            throws InterruptedException {
+        Set<String> seenEmails = new HashSet<>();
+        List<User> current = new ArrayList<>(chunkSize);
+        Chunk last = Chunk.ABORT;
+        try {
+            while (true) {
+                ParsedUser next = parsed.take();
+                if (next == ParsedUser.ABORT) {
+                    break;
+                }
+                if (next.isEnd()) {
+                    last = new Chunk(current, next.lineNumber, true);
+                    break;
+                }
+                try {
+                    UserValidator.validate(next.user);
+                } catch (InvalidRequestException e) {
+                    progress.invalid.incrementAndGet();
+                    continue;
+                }
+                if (!seenEmails.add(next.user.getEmail())) {
+                    progress.duplicates.incrementAndGet();
+                    continue;
+                }
+                next.user.setId(null);
+                current.add(next.user);
+                if (current.size() == chunkSize) {
+                    chunks.put(new Chunk(current, next.lineNumber, false));
+                    current = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            chunks.put(last);
+        }
+    }
+
+    private void write(BlockingQueue<Chunk> chunks, Progress progress) throws InterruptedException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long lastReport = System.currentTimeMillis();
+        while (true) {
+            Chunk chunk = chunks.take();
+            if (chunk == Chunk.ABORT) {
+                // An upstream stage failed; its error is rethrown from its future
+                return;
+            }
+            List<User> written = transactionTemplate.execute(status -> writeChunk(chunk, progress));
+            if (!written.isEmpty()) {
+                eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.CREATED, null, null,
+                        UserChangedEvent.ageDelta(written)));
+            }
+
+            progress.imported.addAndGet(written.size());
+            progress.duplicates.addAndGet(chunk.users.size() - written.size());
+            progress.chunksCommitted.incrementAndGet();
+
+            if (chunk.last) {
+                return;
+            }
+            if (System.currentTimeMillis() - lastReport >= PROGRESS_INTERVAL_MILLIS) {
+                lastReport = System.currentTimeMillis();
+                log.info("Import progress: {}", progress.toReport());
+            }
+        }
+    }
+
+    // Runs inside the chunk transaction; the checkpoint only moves if the users are committed too
+    private List<User> writeChunk(Chunk chunk, Progress progress) {
+        List<String> emails = new ArrayList<>(chunk.users.size());
+        for (User user : chunk.users) {
+            emails.add(user.getEmail());
+        }
+        Set<String> existing = emails.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingEmails(emails));
+        // Emails held by queued write-behind users count as existing too
+        UserWriteBehind writer = writeBehind.getIfAvailable();
+
+        List<User> fresh = new ArrayList<>(chunk.users.size());
+        for (User user : chunk.users) {
+            if (!existing.contains(user.getEmail()) && (writer == null || !writer.isReserved(user.getEmail()))) {
+                fresh.add(user);
+            }
+        }
+        userRepository.saveAll(fresh);
+        userRepository.flushAndClear();
+
+        // The checkpoint counts the whole file, including the runs this one resumed
+        long importedSoFar = progress.importedBefore + progress.imported.get() + fresh.size();
+        checkpointRepository.save(new ImportCheckpoint(progress.source, chunk.lastLine, importedSoFar, chunk.last));
+        return fresh;
+    }
+
+    private static class ParsedUser {
+        static final ParsedUser ABORT = new ParsedUser(-1, null);
+
+        final long lineNumber;
+        final User user;
+
+        ParsedUser(long lineNumber, User user) {
+            this.lineNumber = lineNumber;
+            this.user = user;
+        }
+
+        static ParsedUser end(long lineNumber) {
+            return new ParsedUser(lineNumber, null);
+        }
+
+        boolean isEnd() {
+            return user == null;
+        }
+    }
+
+    private static class Chunk {
+        static final Chunk ABORT = new Chunk(List.of(), -1, true);
+
+        final List<User> users;
+        final long lastLine;
+        final boolean last;
+
+        Chunk(List<User> users, long lastLine, boolean last) {
+            this.users = users;
+            this.lastLine = lastLine;
+            this.last = last;
+        }
+    }
+
+    private static class Progress {
+        final String source;
+        final long resumedFromLine;
+        // Users imported from this file by the interrupted runs before this one
+        final long importedBefore;
+        final long startTime = System.currentTimeMillis();
+        final AtomicLong linesRead = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong invalid = new AtomicLong();
+        final AtomicLong duplicates = new AtomicLong();
+        final AtomicLong chunksCommitted = new AtomicLong();
+
+        Progress(String source, long resumedFromLine, long importedBefore) {
+            this.source = source;
+            this.resumedFromLine = resumedFromLine;
+            this.importedBefore = importedBefore;
+        }
+
+        ImportReport toReport() {
+            return new ImportReport(source, resumedFromLine, linesRead.get(), imported.get(), invalid.get(),
+                    duplicates.get(), chunksCommitted.get(), System.currentTimeMillis() - startTime);
+        }
+    }
+}
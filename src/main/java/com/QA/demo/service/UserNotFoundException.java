@@ -0,0 +1,11 @@
+package com.QA.demo.service;
+
+/**
+ * Thrown when a write names a user id that does not exist.
+ */
+public class UserNotFoundException extends UserException {
+
+    public UserNotFoundException() {
+        super("User not found");
+    }
+}
@@ -1,72 +1,513 @@
 package com.QA.demo.service;
 
 import com.QA.demo.model.User;
-import com.QA.demo.repository.UserRepository;
+import com.QA.demo.model.UserBatchResult;
+import com.QA.demo.model.UserCacheStats;
+import com.QA.demo.model.UserFields;
+import com.QA.demo.model.UserFieldsPage;
+import com.QA.demo.model.UserPage;
+import com.QA.demo.model.UserStats;
+import com.QA.demo.repository.UserStore;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
+// One timer per public method (tags class and method), with histogram buckets for percentiles
 @Service
+@Timed(value = "user.service", histogram = true)
 public class UserService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    // Matches hibernate.jdbc.batch_size and the users_seq allocation size
+    private static final int BATCH_CHUNK_SIZE = 500;
+
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    // If-Match: * only holds for a user that exists
+    private static final String NO_USER_FOR_ANY_VERSION = "If-Match * requires an existing user";
+
+    @Autowired
+    private UserStore userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserStatistics userStatistics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Looked up lazily: UserWriteBehind depends on this service, and it only exists when enabled
     @Autowired
-    private UserRepository userRepository;
+    private ObjectProvider<UserWriteBehind> writeBehind;
 
+    /*
+     * Transaction boundaries: every write is @Transactional and multi-query reads are
+     * @Transactional(readOnly = true). The cache-fronted lookups (getUserById, getUserByEmail,
+     * getUserVersion) deliberately have none of their own, so a cache hit never checks out a
+     * connection; on a miss the repository call runs in its own read-only transaction.
+     */
+
+    @DatabaseBound
+    @Transactional
     public User createUser(User user) {
-        // Add validation
-        if (user.getName() == null || user.getName().trim().isEmpty()) {
-            throw new RuntimeException("Name cannot be empty");
+        UserValidator.validate(user);
+
+        // A cached user with this email is a known duplicate, no need to go to the database
+        if (userCache.containsEmail(user.getEmail())) {
+            throw new DuplicateEmailException();
+        }
+
+        // Single INSERT; the unique constraint on users.email decides, which also closes the check-then-insert race
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new DuplicateEmailException();
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.CREATED, savedUser.getId(), null,
+                UserChangedEvent.ageDelta(null, savedUser.getAge())));
+        return savedUser;
+    }
+
+    // Same rules as createUser, applied per item; invalid or duplicate items are reported, not fatal
+    @DatabaseBound
+    @Transactional
+    public List<UserBatchResult> createUsers(List<User> users) {
+        return createUsers(users, email -> false);
+    }
+
+    // As above, also rejecting items whose email is held elsewhere, e.g. by a queued write-behind user
+    @DatabaseBound
+    @Transactional
+    public List<UserBatchResult> createUsers(List<User> users, Predicate<String> reservedEmail) {
+        if (users.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("Batch cannot exceed " + MAX_BATCH_SIZE + " users");
         }
-        if (user.getEmail() == null || !user.getEmail().contains("@")) {
-            throw new RuntimeException("Invalid email format");
+
+        UserBatchResult[] results = new UserBatchResult[users.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            try {
+                UserValidator.validate(user);
+            } catch (InvalidRequestException e) {
+                results[i] = UserBatchResult.rejected(i, e.getMessage());
+                continue;
+            }
+            if (reservedEmail.test(user.getEmail()) || candidates.putIfAbsent(user.getEmail(), i) != null) {
+                results[i] = UserBatchResult.rejected(i, "Email already exists");
+            }
+        }
+
+        // One IN query per chunk instead of an existsByEmail round trip per user
+        List<String> emails = new ArrayList<>(candidates.keySet());
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < emails.size(); from += BATCH_CHUNK_SIZE) {
+            List<String> chunk = emails.subList(from, Math.min(from + BATCH_CHUNK_SIZE, emails.size()));
+            existing.addAll(userRepository.findExistingEmails(chunk));
         }
-        if (user.getAge() == null || user.getAge() <= 0) {
-            throw new RuntimeException("Age must be positive");
+
+        List<User> pending = new ArrayList<>(BATCH_CHUNK_SIZE);
+        List<User> created = new ArrayList<>(candidates.size());
+        try {
+            for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+                int index = candidate.getValue();
+                if (existing.contains(candidate.getKey())) {
+                    results[index] = UserBatchResult.rejected(index, "Email already exists");
+                    continue;
+                }
+                User user = users.get(index);
+                // Always an insert: a client-supplied id would turn persist into a per-row merge
+                user.setId(null);
+                pending.add(user);
+                created.add(user);
+                results[index] = UserBatchResult.created(index, user);
+                if (pending.size() == BATCH_CHUNK_SIZE) {
+                    userRepository.saveAll(pending);
+                    userRepository.flushAndClear();
+                    pending.clear();
+                }
+            }
+            userRepository.saveAll(pending);
+            userRepository.flushAndClear();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent writer took one of the emails between the check and the insert
+            throw new DuplicateEmailException();
         }
 
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new RuntimeException("Email already exists");
+        // One event for the whole batch; it is delivered after the surrounding transaction commits
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.CREATED, null, null,
+                UserChangedEvent.ageDelta(created)));
+        return Arrays.asList(results);
+    }
+
+    // users.email is the only unique constraint besides the primary key, which is never client-assigned on insert
+    private boolean isUniqueViolation(DataIntegrityViolationException e) {
+        // Thrown directly by the in-memory repository
+        if (e instanceof DuplicateKeyException) {
+            return true;
         }
-        return userRepository.save(user);
+        Throwable cause = e.getCause();
+        if (cause instanceof ConstraintViolationException violation) {
+            return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+                    || UNIQUE_VIOLATION_SQL_STATE.equals(violation.getSQLState());
+        }
+        return false;
     }
 
     public Optional<User> getUserById(Long id) {
-        return userRepository.findById(id);
+        return userCache.getById(id, userRepository::findById);
     }
 
     public Optional<User> getUserByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userCache.getByEmail(email, userRepository::findByEmail, userRepository::findById);
+    }
+
+    // Current version without loading the row when the user is cached, or with a single-column query otherwise
+    public Optional<Long> getUserVersion(Long id) {
+        Optional<User> cached = userCache.peek(id);
+        if (cached.isPresent()) {
+            return Optional.of(cached.get().getVersion());
+        }
+        return userRepository.findVersionById(id);
+    }
+
+    public UserCacheStats getCacheStats() {
+        return userCache.getStats();
     }
 
+    public UserStats getStats() {
+        return userStatistics.current();
+    }
+
+    // Annotated as well: the self-call below does not go through the transactional proxy
+    @DatabaseBound
+    @Transactional
     public void deleteUser(Long id) {
+        deleteUser(id, null);
+    }
+
+    // ifMatch is the If-Match precondition; null deletes unconditionally. One set-based DELETE, no entity is loaded.
+    @DatabaseBound
+    @Transactional
+    public void deleteUser(Long id, IfMatch ifMatch) {
         if (id == null) {
-            throw new RuntimeException("User not found");
+            throw new UserNotFoundException();
         }
 
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        userRepository.delete(user);
+        UserStore.PreviousRow deleted = (ifMatch == null || ifMatch.any()
+                ? userRepository.deleteUserById(id)
+                : userRepository.deleteUserByIdAndVersionIn(id, ifMatch.versions()))
+                .orElseThrow(() -> missingOrMismatched(id, ifMatch));
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.DELETED, id, deleted.email(),
+                UserChangedEvent.ageDelta(deleted.age(), null)));
     }
 
+    @DatabaseBound
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    // Hands every user to the sink one at a time and detaches it, so nothing accumulates on the heap
+    @Transactional(readOnly = true)
+    public long exportUsers(Consumer<User> sink) {
+        long count = 0;
+        try (Stream<User> users = userRepository.streamAllByOrderByIdAsc()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                sink.accept(user);
+                userRepository.detach(user);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @DatabaseBound
+    @Transactional(readOnly = true)
+    public UserPage getUsersPage(String after, Integer limit, boolean includeTotal) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Long afterId = after == null || after.isEmpty() ? 0L : UserCursor.decode(after);
+
+        // Fetch one extra row to know whether another page exists without a COUNT(*)
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextCursor = UserCursor.encode(users.get(pageSize - 1).getId());
+        }
+
+        Long total = includeTotal ? userRepository.count() : null;
+        return new UserPage(users, nextCursor, total);
+    }
+
+    /*
+     * Sparse fieldsets (?fields=id,name): the same keyset page, but only the requested columns are
+     * selected and the rows come back as UserFields records instead of managed entities.
+     */
+
+    @DatabaseBound
+    @Transactional(readOnly = true)
+    public List<UserFields> getAllUserFields(String fields) {
+        Set<String> selected = parseFields(fields);
+        return withRequestedId(userRepository.findFieldsByIdGreaterThan(selected, 0L, null), selected);
+    }
+
+    @DatabaseBound
+    @Transactional(readOnly = true)
+    public UserFieldsPage getUserFieldsPage(String fields, String after, Integer limit, boolean includeTotal) {
+        Set<String> selected = parseFields(fields);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Long afterId = after == null || after.isEmpty() ? 0L : UserCursor.decode(after);
+
+        List<UserFields> users = userRepository.findFieldsByIdGreaterThan(selected, afterId, pageSize + 1);
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextCursor = UserCursor.encode(users.get(pageSize - 1).id());
+        }
+
+        Long total = includeTotal ? userRepository.count() : null;
+        return new UserFieldsPage(withRequestedId(users, selected), nextCursor, total);
+    }
+
+    private static Set<String> parseFields(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!UserFields.NAMES.contains(name)) {
+                throw new InvalidRequestException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        if (selected.isEmpty()) {
+            throw new InvalidRequestException("fields must name at least one of " + String.join(", ", UserFields.NAMES));
+        }
+        return selected;
+    }
+
+    // The id is always selected for the cursor, but only returned when it was asked for
+    private static List<UserFields> withRequestedId(List<UserFields> users, Set<String> selected) {
+        if (selected.contains("id")) {
+            return users;
+        }
+        List<UserFields> withoutId = new ArrayList<>(users.size());
+        for (UserFields user : users) {
+            withoutId.add(user.withoutId());
+        }
+        return withoutId;
+    }
+
+    // Annotated as well: the self-call below does not go through the transactional proxy
+    @DatabaseBound
+    @Transactional
     public User updateUser(Long id, User userDetails) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return updateUser(id, userDetails, null);
+    }
+
+    /**
+     * Filtered keyset search. A name prefix walks the (name, id) index and an age-only search walks
+     * the (age, id) index; one query per page either way. Without any filter this is the plain id
+     * keyset page.
+     */
+    @DatabaseBound
+    @Transactional(readOnly = true)
+    public UserPage searchUsers(Integer minAge, Integer maxAge, String namePrefix, String after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        int lowerAge = minAge == null ? 0 : minAge;
+        int upperAge = maxAge == null ? Integer.MAX_VALUE : maxAge;
+        if (lowerAge > upperAge) {
+            throw new InvalidRequestException("minAge must not be greater than maxAge");
+        }
+        boolean hasAfter = after != null && !after.isEmpty();
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<User> users;
+        if (namePrefix != null && !namePrefix.isEmpty()) {
+            UserCursor.Keyset<String> position = hasAfter ? UserCursor.decodeName(after) : null;
+            String fromName = position == null ? namePrefix : position.getSortKey();
+            long afterId = position == null ? 0L : position.getId();
+            users = userRepository.searchByNamePrefix(likePrefix(namePrefix), fromName, afterId, lowerAge, upperAge, fetch);
+        } else if (minAge != null || maxAge != null) {
+            UserCursor.Keyset<Integer> position = hasAfter ? UserCursor.decodeAge(after) : null;
+            boolean resume = position != null && position.getSortKey() >= lowerAge;
+            int fromAge = resume ? position.getSortKey() : lowerAge;
+            long afterId = resume ? position.getId() : 0L;
+            users = userRepository.searchByAge(fromAge, upperAge, afterId, fetch);
+        } else {
+            return getUsersPage(after, pageSize, false);
+        }
 
-        if (!user.getEmail().equals(userDetails.getEmail()) &&
-                userRepository.existsByEmail(userDetails.getEmail())) {
-            throw new RuntimeException("Email already exists");
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            User last = users.get(pageSize - 1);
+            nextCursor = namePrefix != null && !namePrefix.isEmpty()
+                    ? UserCursor.encodeName(last.getName(), last.getId())
+                    : UserCursor.encodeAge(last.getAge(), last.getId());
         }
+        return new UserPage(users, nextCursor, null);
+    }
+
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
 
-        user.setName(userDetails.getName());
-        user.setEmail(userDetails.getEmail());
-        user.setAge(userDetails.getAge());
+    /**
+     * Full replacement as one set-based UPDATE (see {@link UserStore#updateUserById}); no entity
+     * is loaded and the unique constraint on email replaces the existsByEmail probe.
+     *
+     * @param ifMatch the If-Match precondition, or null to update unconditionally
+     * @return the user as written, with its new version
+     */
+    @DatabaseBound
+    @Transactional
+    public User updateUser(Long id, User userDetails, IfMatch ifMatch) {
+        UserValidator.validate(userDetails);
+        checkNotReserved(userDetails.getEmail());
 
-        return userRepository.save(user);
+        Optional<UserStore.PreviousRow> updated;
+        try {
+            updated = ifMatch == null || ifMatch.any()
+                    ? userRepository.updateUserById(id, userDetails.getName(), userDetails.getEmail(), userDetails.getAge())
+                    : userRepository.updateUserByIdAndVersionIn(id, ifMatch.versions(),
+                            userDetails.getName(), userDetails.getEmail(), userDetails.getAge());
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new DuplicateEmailException();
+            }
+            throw e;
+        }
+        UserStore.PreviousRow previous = updated.orElseThrow(() -> missingOrMismatched(id, ifMatch));
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, id, previous.email(),
+                UserChangedEvent.ageDelta(previous.age(), userDetails.getAge())));
+
+        User user = new User(id, userDetails.getName(), userDetails.getEmail(), userDetails.getAge());
+        user.setVersion(previous.version() + 1);
+        return user;
+    }
+
+    // Only reached when a set-based write matched no row; one extra query tells 404 from 412
+    private UserException missingOrMismatched(Long id, IfMatch ifMatch) {
+        if (ifMatch == null) {
+            return new UserNotFoundException();
+        }
+        if (ifMatch.any()) {
+            return new VersionMismatchException(NO_USER_FOR_ANY_VERSION);
+        }
+        if (userRepository.existsById(id)) {
+            return new VersionMismatchException("User version is not one of " + ifMatch.versions());
+        }
+        return new UserNotFoundException();
+    }
+
+    /**
+     * Applies only the non-null fields of {@code patch}. Costs one SELECT and, if anything changed,
+     * one UPDATE of just the changed columns: a changed email is checked by the unique constraint
+     * instead of an existsByEmail probe, and an unchanged one is not checked at all.
+     *
+     * @return the updated user, or empty if there is no user with this id
+     */
+    @DatabaseBound
+    @Transactional
+    public Optional<User> patchUser(Long id, User patch, IfMatch ifMatch) {
+        Optional<User> found = userRepository.findById(id);
+        if (found.isEmpty()) {
+            if (ifMatch != null && ifMatch.any()) {
+                throw new VersionMismatchException(NO_USER_FOR_ANY_VERSION);
+            }
+            return Optional.empty();
+        }
+        User user = found.get();
+        checkVersion(user, ifMatch);
+        if (patch.getEmail() != null && !patch.getEmail().equals(user.getEmail())) {
+            checkNotReserved(patch.getEmail());
+        }
+
+        String previousEmail = user.getEmail();
+        Integer previousAge = user.getAge();
+        if (patch.getName() != null) {
+            user.setName(patch.getName());
+        }
+        if (patch.getEmail() != null) {
+            user.setEmail(patch.getEmail());
+        }
+        if (patch.getAge() != null) {
+            user.setAge(patch.getAge());
+        }
+        UserValidator.validate(user);
+
+        try {
+            // Flush here so constraint and version failures surface as our exceptions, not at commit
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new DuplicateEmailException();
+            }
+            throw e;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new VersionMismatchException("User was modified concurrently", e);
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, id, previousEmail,
+                UserChangedEvent.ageDelta(previousAge, user.getAge())));
+        return Optional.of(user);
+    }
+
+    // A user queued by write-behind holds its email before the unique constraint can see it
+    private void checkNotReserved(String email) {
+        UserWriteBehind writer = writeBehind.getIfAvailable();
+        if (writer != null && writer.isReserved(email)) {
+            throw new DuplicateEmailException();
+        }
+    }
+
+    private void checkVersion(User user, IfMatch ifMatch) {
+        if (ifMatch != null && !ifMatch.matches(user.getVersion())) {
+            throw new VersionMismatchException("User version " + user.getVersion() + " is not one of " + ifMatch.versions());
+        }
     }
 }
\ No newline at end of file
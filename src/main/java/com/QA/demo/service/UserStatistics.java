@@ -0,0 +1,149 @@
+package com.QA.demo.service;
+
+import com.QA.demo.model.UserStats;
+import com.QA.demo.repository.UserStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * User count and age distribution, kept in memory so {@code GET /api/users/stats} never touches
+ * the table.
+ *
+ * <p>Every committed write published as a {@link UserChangedEvent} carries its change to the
+ * number of users per age, which is applied here after commit. A full recompute (one GROUP BY
+ * on the age index) runs at startup and then periodically, and replaces the counters to correct
+ * any drift, for example from writes that bypass {@link UserService}.
+ *
+ * <p>Writes that commit while a recompute is reading the table are replayed on top of its result.
+ * A write that commits just before the read but is applied just after it is counted twice; the
+ * next recompute corrects that.
+ *
+ * <p>Each change rebuilds an immutable {@link UserStats} snapshot, so readers only read a
+ * volatile field. The rebuild costs one pass over the distinct ages, not over the users.
+ */
+@Component
+public class UserStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatistics.class);
+
+    @Autowired
+    private UserStore userRepository;
+
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    private TreeMap<Integer, Long> usersByAge = new TreeMap<>();
+    private long total;
+    private long ageSum;
+    private Instant recomputedAt;
+    // Changes applied while a recompute reads the table; null when no recompute is running
+    private Map<Integer, Long> changesDuringRecompute;
+
+    private volatile UserStats current = new UserStats(0, null, null, null, Map.of(), null);
+
+    public UserStats current() {
+        return current;
+    }
+
+    // Default phase is AFTER_COMMIT; without a transaction the write has already committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Map<Integer, Integer> delta = event.getAgeDelta();
+        if (delta == null || delta.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            delta.forEach((age, change) -> {
+                add(usersByAge, age, change);
+                total += change;
+                ageSum += (long) age * change;
+                if (changesDuringRecompute != null) {
+                    changesDuringRecompute.merge(age, (long) change, Long::sum);
+                }
+            });
+            publish();
+        }
+    }
+
+    // Synchronized so the startup run and a scheduled run never overlap
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${user.stats.recompute-interval:PT5M}",
+            fixedDelayString = "${user.stats.recompute-interval:PT5M}")
+    public synchronized void recompute() {
+        synchronized (lock) {
+            changesDuringRecompute = new HashMap<>();
+        }
+        List<Object[]> rows;
+        try {
+            rows = userRepository.countUsersByAge();
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                changesDuringRecompute = null;
+            }
+            throw e;
+        }
+
+        TreeMap<Integer, Long> counted = new TreeMap<>();
+        for (Object[] row : rows) {
+            // Rows written with plain SQL can lack an age; they have no place in the histogram
+            if (row[0] != null) {
+                counted.put((Integer) row[0], (Long) row[1]);
+            }
+        }
+
+        synchronized (lock) {
+            changesDuringRecompute.forEach((age, change) -> add(counted, age, change));
+            changesDuringRecompute = null;
+            if (!counted.equals(usersByAge)) {
+                log.info("User statistics recompute corrected drift: {} users counted incrementally, {} in the table",
+                        total, sum(counted));
+            }
+            usersByAge = counted;
+            total = 0;
+            ageSum = 0;
+            counted.forEach((age, count) -> {
+                total += count;
+                ageSum += (long) age * count;
+            });
+            recomputedAt = Instant.now();
+            publish();
+        }
+    }
+
+    private static void add(Map<Integer, Long> counts, Integer age, long change) {
+        // Drop ages that reach zero so min and max follow the users actually present
+        counts.merge(age, change, (count, delta) -> count + delta == 0 ? null : count + delta);
+    }
+
+    private static long sum(Map<Integer, Long> counts) {
+        long sum = 0;
+        for (long count : counts.values()) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    // Called with lock held
+    private void publish() {
+        boolean empty = usersByAge.isEmpty();
+        current = new UserStats(total,
+                empty ? null : usersByAge.firstKey(),
+                empty ? null : usersByAge.lastKey(),
+                total > 0 ? (double) ageSum / total : null,
+                new LinkedHashMap<>(usersByAge),
+                recomputedAt);
+    }
+}
@@ -0,0 +1,64 @@
+package com.QA.demo.service;
+
+import com.QA.demo.repository.UserStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Cheap change marker for the users table, used as the ETag of collection responses.
+ *
+ * <p>The marker is a counter row in the database, so every instance sharing the database sees
+ * the same value. Each write transaction that publishes a {@link UserChangedEvent} increments it
+ * just before it commits: the row lock is held only for the commit, and a rolled-back write
+ * leaves the marker alone. A response can carry an older marker with newer rows, when a write
+ * commits between the two reads (the next poll simply refetches), but never a newer marker with
+ * older rows, since the marker is read first.
+ *
+ * <p>Writes that bypass {@link UserService} (plain SQL) do not increment the counter and are not
+ * seen. Collection responses carry no ETag, and so are never answered with 304, until the row
+ * exists.
+ */
+@Component
+public class UserTableVersion implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(UserTableVersion.class);
+
+    private final UserStore userStore;
+    private final TransactionTemplate transaction;
+
+    public UserTableVersion(UserStore userStore, TransactionTemplate transaction) {
+        this.userStore = userStore;
+        this.transaction = transaction;
+    }
+
+    // Before the web server starts, so the first write already finds the row
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            transaction.executeWithoutResult(status -> userStore.createChangeCounterIfAbsent());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Change counter created concurrently by another instance", e);
+        }
+    }
+
+    // Without a transaction (fallback) the increment gets its own
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        transaction.executeWithoutResult(status -> userStore.incrementChangeCounter());
+    }
+
+    /**
+     * @return the marker, or empty when the counter row does not exist
+     */
+    public Optional<String> current() {
+        return userStore.findChangeCounter().map(counter -> counter.epoch() + "-" + counter.changes());
+    }
+}
@@ -0,0 +1,23 @@
+package com.QA.demo.service;
+
+import com.QA.demo.model.User;
+
+/**
+ * Field rules for a new user, shared by every write path (single, batch, import, reactive).
+ */
+public final class UserValidator {
+
+    private UserValidator() {}
+
+    public static void validate(User user) {
+        if (user.getName() == null || user.getName().trim().isEmpty()) {
+            throw new InvalidRequestException("Name cannot be empty");
+        }
+        if (user.getEmail() == null || !user.getEmail().contains("@")) {
+            throw new InvalidRequestException("Invalid email format");
+        }
+        if (user.getAge() == null || user.getAge() <= 0) {
+            throw new InvalidRequestException("Age must be positive");
+        }
+    }
+}
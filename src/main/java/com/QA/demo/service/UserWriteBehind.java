@@ -0,0 +1,278 @@
+package com.QA.demo.service;
+
+import com.QA.demo.model.User;
+import com.QA.demo.model.UserBatchResult;
+import com.QA.demo.model.UserWriteStatus;
+import com.QA.demo.repository.UserStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for {@code POST /api/users}, enabled with {@code user.write-behind.enabled=true}.
+ *
+ * <p>{@link #submit} validates the user, reserves the email and queues it, then returns a
+ * tracking id at once. A single writer thread drains the bounded queue and inserts up to
+ * {@code user.write-behind.batch-size} users per transaction through
+ * {@link UserService#createUsers}. When the queue is full, submit throws
+ * {@link WriteQueueFullException} and the controller answers 503.
+ *
+ * <p>Durability: an accepted user lives only in this process until its batch commits, and its
+ * status says CREATED only after that. Stopping the context drains the queue before the data
+ * source closes, but a crash or kill loses whatever was still queued. Clients that must know
+ * the user was stored poll the status.
+ *
+ * <p>Emails are reserved in memory from submit until the batch commits, after which the unique
+ * constraint takes over. A duplicate is normally rejected at submit time. {@link UserService}
+ * rejects a PUT or PATCH to a reserved email, {@code POST /api/users/batch} rejects the item and
+ * {@link UserImportPipeline} skips the line as a duplicate. Another instance, or a write that
+ * passed that check just before the submit, can still take the email in the meantime; that user
+ * then ends FAILED.
+ *
+ * <p>Every accepted user ends CREATED or FAILED: if a batch fails outside the inserts, the users
+ * of that batch still waiting are marked FAILED.
+ */
+@Component
+@ConditionalOnProperty(name = "user.write-behind.enabled", havingValue = "true")
+public class UserWriteBehind implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(UserWriteBehind.class);
+
+    // Below the web server's lifecycle phases: started before it accepts requests, stopped after it stopped
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserStore userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    private final BlockingQueue<PendingUser> queue;
+    private final int batchSize;
+    // email -> tracking id of the queued user holding it
+    private final Map<String, String> reservedEmails = new ConcurrentHashMap<>();
+    private final Cache<String, UserWriteStatus> statuses;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter created;
+    private final Counter failed;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public UserWriteBehind(@Value("${user.write-behind.queue-capacity:10000}") int queueCapacity,
+                           @Value("${user.write-behind.batch-size:500}") int batchSize,
+                           @Value("${user.write-behind.status-ttl:1h}") Duration statusTtl,
+                           MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.statuses = Caffeine.newBuilder().expireAfterWrite(statusTtl).build();
+
+        Gauge.builder("user.write_behind.queue.depth", queue, BlockingQueue::size)
+                .description("Users accepted but not yet written")
+                .register(meterRegistry);
+        Gauge.builder("user.write_behind.queue.capacity", () -> queueCapacity).register(meterRegistry);
+        this.accepted = meterRegistry.counter("user.write_behind.requests", "outcome", "accepted");
+        this.rejected = meterRegistry.counter("user.write_behind.requests", "outcome", "queue_full");
+        this.created = meterRegistry.counter("user.write_behind.writes", "outcome", "created");
+        this.failed = meterRegistry.counter("user.write_behind.writes", "outcome", "failed");
+        this.batchSizes = DistributionSummary.builder("user.write_behind.batch.size").register(meterRegistry);
+    }
+
+    public UserWriteStatus submit(User user) {
+        UserValidator.validate(user);
+
+        String trackingId = UUID.randomUUID().toString();
+        String email = user.getEmail();
+        if (reservedEmails.putIfAbsent(email, trackingId) != null) {
+            throw new DuplicateEmailException();
+        }
+        boolean queued = false;
+        try {
+            if (userCache.containsEmail(email) || userRepository.existsByEmail(email)) {
+                throw new DuplicateEmailException();
+            }
+            // Always an insert, as in createUsers
+            user.setId(null);
+            user.setVersion(null);
+
+            UserWriteStatus status = UserWriteStatus.pending(trackingId);
+            statuses.put(trackingId, status);
+            PendingUser pending = new PendingUser(trackingId, user);
+            // Re-checked after the offer: the writer may have drained its last batch and stopped in between
+            queued = running && queue.offer(pending) && (running || !queue.remove(pending));
+            if (!queued) {
+                statuses.invalidate(trackingId);
+                rejected.increment();
+                throw new WriteQueueFullException("Write queue is full, try again later");
+            }
+            accepted.increment();
+            return status;
+        } finally {
+            if (!queued) {
+                reservedEmails.remove(email, trackingId);
+            }
+        }
+    }
+
+    public Optional<UserWriteStatus> getStatus(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    // True while a queued user holds the email, i.e. before its batch has committed
+    public boolean isReserved(String email) {
+        return reservedEmails.containsKey(email);
+    }
+
+    private void drain() {
+        List<PendingUser> batch = new ArrayList<>(batchSize);
+        // Keeps going after stop() until everything accepted has been written
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingUser first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Write-behind writer interrupted with {} users still queued", queue.size());
+                return;
+            } catch (RuntimeException e) {
+                log.error("Write-behind batch of {} users failed", batch.size(), e);
+                failPending(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingUser> batch) {
+        batchSizes.record(batch.size());
+        List<User> users = new ArrayList<>(batch.size());
+        for (PendingUser pending : batch) {
+            users.add(pending.user());
+        }
+        try {
+            List<UserBatchResult> results;
+            try {
+                results = userService.createUsers(users);
+            } catch (RuntimeException e) {
+                writeOneByOne(batch);
+                return;
+            }
+            // The batch has committed: a mismatch here must not retry the inserts, drain() fails what is left
+            if (results.size() != batch.size()) {
+                throw new IllegalStateException("Expected " + batch.size() + " batch results, got " + results.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                UserBatchResult result = results.get(i);
+                if (UserBatchResult.CREATED.equals(result.getStatus())) {
+                    complete(UserWriteStatus.created(batch.get(i).trackingId(), result.getUser()));
+                } else {
+                    complete(UserWriteStatus.failed(batch.get(i).trackingId(), result.getMessage()));
+                }
+            }
+        } finally {
+            release(batch);
+        }
+    }
+
+    // The whole batch rolled back (usually one email taken elsewhere); one transaction each isolates the culprit
+    private void writeOneByOne(List<PendingUser> batch) {
+        for (PendingUser pending : batch) {
+            User user = pending.user();
+            user.setId(null);
+            user.setVersion(null);
+            try {
+                complete(UserWriteStatus.created(pending.trackingId(), userService.createUser(user)));
+            } catch (RuntimeException single) {
+                complete(UserWriteStatus.failed(pending.trackingId(), single.getMessage()));
+            }
+        }
+    }
+
+    // Users of a failed batch that no write completed would otherwise stay PENDING until their status expires
+    private void failPending(List<PendingUser> batch, RuntimeException cause) {
+        for (PendingUser pending : batch) {
+            UserWriteStatus status = statuses.getIfPresent(pending.trackingId());
+            if (status == null || UserWriteStatus.PENDING.equals(status.getStatus())) {
+                complete(UserWriteStatus.failed(pending.trackingId(), "Write failed: " + cause.getMessage()));
+            }
+        }
+        release(batch);
+    }
+
+    // Committed rows are guarded by the unique constraint from here on
+    private void release(List<PendingUser> batch) {
+        for (PendingUser pending : batch) {
+            reservedEmails.remove(pending.user().getEmail(), pending.trackingId());
+        }
+    }
+
+    private void complete(UserWriteStatus status) {
+        statuses.put(status.getTrackingId(), status);
+        (UserWriteStatus.CREATED.equals(status.getStatus()) ? created : failed).increment();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "user-write-behind");
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private record PendingUser(String trackingId, User user) {}
+}
@@ -0,0 +1,16 @@
+package com.QA.demo.service;
+
+/**
+ * Thrown when a conditional write (If-Match) names a version that is no longer the current one,
+ * either because it was stale on arrival or because another writer committed first.
+ */
+public class VersionMismatchException extends UserException {
+
+    public VersionMismatchException(String message) {
+        super(message);
+    }
+
+    public VersionMismatchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.QA.demo.service;
+
+/**
+ * Thrown when the write-behind queue has no room for another user. The caller should retry
+ * later; nothing was reserved or queued.
+ */
+public class WriteQueueFullException extends UserException {
+
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+}
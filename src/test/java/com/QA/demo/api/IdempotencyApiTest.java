@@ -0,0 +1,165 @@
+package com.QA.demo.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:idempotencydb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+public class IdempotencyApiTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        RestAssured.port = port;
+        RestAssured.basePath = "/api";
+    }
+
+    @Test
+    void testRetriedCreateReplaysTheFirstResponse() {
+        String userJson = """
+            {"name": "Retry User", "email": "retry@example.com", "age": 35}
+            """;
+        Response first = post("retry-create", userJson);
+        first.then()
+                .statusCode(HttpStatus.CREATED.value())
+                .header("Idempotent-Replayed", nullValue());
+
+        // Without the key this would be an "Email already exists" 400
+        Response retry = post("retry-create", userJson);
+        retry.then()
+                .statusCode(HttpStatus.CREATED.value())
+                .header("Idempotent-Replayed", equalTo("true"))
+                .header("ETag", equalTo(first.header("ETag")))
+                .contentType(ContentType.JSON);
+        assertEquals(first.body().asString(), retry.body().asString());
+
+        given().queryParam("fields", "email").when().get("/users").then()
+                .body("findAll { it.email == 'retry@example.com' }", hasSize(1));
+    }
+
+    @Test
+    void testReplaysNeverReachTheDatabase() {
+        String userJson = """
+            {"name": "Replay User", "email": "replay@example.com", "age": 35}
+            """;
+        post("replay-cost", userJson).then().statusCode(HttpStatus.CREATED.value());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (int i = 0; i < 200; i++) {
+            post("replay-cost", userJson).then().statusCode(HttpStatus.CREATED.value());
+        }
+
+        // Server side only: the client round trip is mostly RestAssured
+        Timer replay = meterRegistry.get("user.idempotency.replay").timer();
+        System.out.println("Replays: " + replay.count() + ", mean " + String.format("%.1f", replay.mean(TimeUnit.MICROSECONDS))
+                + "us, max " + String.format("%.1f", replay.max(TimeUnit.MICROSECONDS)) + "us");
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testKeyReusedWithDifferentBodyIsRejected() {
+        post("reused-key", """
+            {"name": "Original User", "email": "original@example.com", "age": 35}
+            """).then().statusCode(HttpStatus.CREATED.value());
+
+        post("reused-key", """
+            {"name": "Other User", "email": "other@example.com", "age": 36}
+            """).then()
+                .statusCode(HttpStatus.UNPROCESSABLE_ENTITY.value())
+                .body("message", containsString("different request body"));
+    }
+
+    @Test
+    void testRetriedUpdateIsAppliedOnce() {
+        Integer id = post("update-setup", """
+            {"name": "Update User", "email": "update-once@example.com", "age": 35}
+            """).then().statusCode(HttpStatus.CREATED.value()).extract().path("id");
+        String update = """
+            {"name": "Updated User", "email": "update-once@example.com", "age": 36}
+            """;
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            given().contentType(ContentType.JSON).header("Idempotency-Key", "update-once").body(update)
+                    .when().put("/users/" + id)
+                    .then().statusCode(HttpStatus.OK.value()).body("version", equalTo(1));
+        }
+        given().when().get("/users/" + id).then().header("ETag", equalTo("\"1\""));
+    }
+
+    @Test
+    void testConcurrentDuplicatesWaitForTheFirstResult() throws Exception {
+        String userJson = """
+            {"name": "Storm User", "email": "storm@example.com", "age": 35}
+            """;
+        int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Response>> futures = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return post("storm", userJson);
+            }));
+        }
+        start.countDown();
+
+        List<Integer> ids = new ArrayList<>();
+        int replayed = 0;
+        for (Future<Response> future : futures) {
+            Response response = future.get();
+            assertEquals(HttpStatus.CREATED.value(), response.statusCode());
+            ids.add(response.path("id"));
+            replayed += "true".equals(response.header("Idempotent-Replayed")) ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertEquals(1, ids.stream().distinct().count(), "Every duplicate must see the same user: " + ids);
+        assertEquals(threadCount - 1, replayed);
+    }
+
+    @Test
+    void testBlankKeyIsRejected() {
+        post(" ", """
+            {"name": "Blank Key User", "email": "blank-key@example.com", "age": 35}
+            """).then().statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    private Response post(String key, String body) {
+        return given().contentType(ContentType.JSON).header("Idempotency-Key", key).body(body).when().post("/users");
+    }
+}
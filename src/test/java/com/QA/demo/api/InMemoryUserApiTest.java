@@ -0,0 +1,8 @@
+package com.QA.demo.api;
+
+import org.springframework.test.context.ActiveProfiles;
+
+// The full API suite against the in-memory storage engine instead of H2 and Hibernate
+@ActiveProfiles("in-memory")
+public class InMemoryUserApiTest extends UserApiTest {
+}
@@ -0,0 +1,66 @@
+package com.QA.demo.api;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+// Metrics export is switched off in tests unless asked for
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:metricsdb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@AutoConfigureObservability
+public class MetricsEndpointTest {
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        RestAssured.port = port;
+        RestAssured.basePath = "";
+    }
+
+    @Test
+    void testPrometheusEndpointExposesApiServiceAndPersistenceMetrics() {
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Metrics User", "email": "metrics@example.com", "age": 33}
+                    """)
+                .when()
+                .post("/api/users")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().path("id");
+        given().when().get("/api/users/" + id).then().statusCode(HttpStatus.OK.value());
+
+        given()
+                .when()
+                .get("/actuator/prometheus")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                // Per-route latency histogram
+                .body(containsString("http_server_requests_seconds_bucket{"))
+                .body(containsString("uri=\"/api/users/{id}\""))
+                // Service timers
+                .body(containsString("user_service_seconds_bucket{"))
+                .body(containsString("method=\"createUser\""))
+                // Connection pool
+                .body(containsString("hikaricp_connections_pending"))
+                .body(containsString("hikaricp_connections_acquire_seconds_bucket"))
+                // Hibernate statistics
+                .body(containsString("hibernate_statements_total"))
+                .body(containsString("hibernate_flushes_total"))
+                // JVM GC and allocation
+                .body(containsString("jvm_gc_memory_allocated_bytes_total"));
+    }
+}
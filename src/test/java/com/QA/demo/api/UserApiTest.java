@@ -1,16 +1,30 @@
 package com.QA.demo.api;
 
+import com.QA.demo.repository.UserStore;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class UserApiTest {
@@ -18,6 +32,12 @@ public class UserApiTest {
     @LocalServerPort
     private int port;
 
+    @Autowired
+    private UserStore userStore;
+
+    @Autowired
+    private TransactionTemplate transaction;
+
     @BeforeEach
     void setUp() {
         RestAssured.port = port;
@@ -206,4 +226,689 @@ public class UserApiTest {
                 .body("email", equalTo("updated@example.com"))
                 .body("age", equalTo(30));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpdateUserErrorsMapToTheirOwnStatus() {
+        Long userId = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Update Errors User", "email": "update-errors@example.com", "age": 25}
+                    """)
+                .when()
+                .post("/users")
+                .jsonPath().getLong("id");
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Other User", "email": "update-errors-other@example.com", "age": 26}
+                    """)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        // Invalid input and a taken email used to come back as 404 along with a missing user
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Update Errors User", "email": "no-at-sign", "age": 25}
+                    """)
+                .when()
+                .put("/users/" + userId)
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Invalid email format"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Update Errors User", "email": "update-errors-other@example.com", "age": 25}
+                    """)
+                .when()
+                .put("/users/" + userId)
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Email already exists"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Update Errors User", "email": "update-errors@example.com", "age": 25}
+                    """)
+                .when()
+                .put("/users/999999")
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value())
+                .body("message", equalTo("User not found"));
+    }
+
+    @Test
+    void testGetUsersKeysetPagination() {
+        for (int i = 0; i < 3; i++) {
+            String userJson = String.format("""
+                {
+                    "name": "Page User %d",
+                    "email": "pageuser%d@example.com",
+                    "age": %d
+                }
+                """, i, i, 20 + i);
+            given()
+                    .contentType(ContentType.JSON)
+                    .body(userJson)
+                    .when()
+                    .post("/users");
+        }
+
+        Response firstPage = given()
+                .queryParam("limit", 2)
+                .when()
+                .get("/users");
+
+        firstPage.then()
+                .statusCode(HttpStatus.OK.value())
+                .body("users", hasSize(2))
+                .body("nextCursor", notNullValue())
+                .body("$", not(hasKey("total")));
+
+        String cursor = firstPage.jsonPath().getString("nextCursor");
+        long lastId = firstPage.jsonPath().getLong("users[1].id");
+
+        given()
+                .queryParam("after", cursor)
+                .queryParam("limit", 2)
+                .queryParam("includeTotal", true)
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("users[0].id", greaterThan((int) lastId))
+                .body("total", greaterThanOrEqualTo(3));
+    }
+
+    @Test
+    void testGetUsersWithSparseFieldset() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {
+                        "name": "Sparse User",
+                        "email": "sparse@example.com",
+                        "age": 33
+                    }
+                    """)
+                .when()
+                .post("/users");
+
+        Response page = given()
+                .queryParam("fields", "id,name")
+                .queryParam("limit", 1000)
+                .when()
+                .get("/users");
+
+        page.then()
+                .statusCode(HttpStatus.OK.value())
+                .body("users.find { it.name == 'Sparse User' }.id", notNullValue())
+                .body("users.find { it.name == 'Sparse User' }", not(hasKey("email")))
+                .body("users.find { it.name == 'Sparse User' }", not(hasKey("age")))
+                .body("users.find { it.name == 'Sparse User' }", not(hasKey("version")));
+
+        // Unpaged, and without the id: the cursor still works internally but the id is not returned
+        given()
+                .queryParam("fields", "email")
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("email", hasItem("sparse@example.com"))
+                .body("[0]", not(hasKey("id")));
+    }
+
+    @Test
+    void testGetUsersWithUnknownField() {
+        given()
+                .queryParam("fields", "id,password")
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Unknown field: password"));
+    }
+
+    @Test
+    void testGetUsersWithInvalidCursor() {
+        given()
+                .queryParam("after", "not-a-cursor")
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Invalid cursor"));
+    }
+
+    @Test
+    void testExportUsersAsNdjson() {
+        String userJson = """
+            {
+                "name": "Export User",
+                "email": "exportuser@example.com",
+                "age": 41
+            }
+            """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(userJson)
+                .when()
+                .post("/users");
+
+        Response response = given()
+                .accept("application/x-ndjson")
+                .when()
+                .get("/users/export");
+
+        response.then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(startsWith("application/x-ndjson"));
+
+        String[] lines = response.asString().split("\n");
+        assertTrue(lines.length >= 1);
+        assertTrue(Arrays.stream(lines)
+                .anyMatch(line -> JsonPath.from(line).getString("email").equals("exportuser@example.com")));
+    }
+
+    @Test
+    void testBatchCreateUsers() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {
+                        "name": "Existing Batch User",
+                        "email": "batch-existing@example.com",
+                        "age": 33
+                    }
+                    """)
+                .when()
+                .post("/users");
+
+        String batchJson = """
+            [
+                {"name": "Batch One", "email": "batch-one@example.com", "age": 21},
+                {"name": "", "email": "batch-noname@example.com", "age": 22},
+                {"name": "Batch Two", "email": "batch-one@example.com", "age": 23},
+                {"name": "Batch Three", "email": "batch-existing@example.com", "age": 24},
+                {"name": "Batch Four", "email": "batch-four@example.com", "age": 25}
+            ]
+            """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(batchJson)
+                .when()
+                .post("/users/batch")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("$", hasSize(5))
+                .body("status", contains("CREATED", "REJECTED", "REJECTED", "REJECTED", "CREATED"))
+                .body("[0].user.id", notNullValue())
+                .body("[1].message", equalTo("Name cannot be empty"))
+                .body("[2].message", equalTo("Email already exists"))
+                .body("[3].message", equalTo("Email already exists"))
+                .body("[4].user.email", equalTo("batch-four@example.com"));
+    }
+
+    @Test
+    void testGetCacheStats() {
+        given()
+                .when()
+                .get("/users/cache-stats")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("hits", greaterThanOrEqualTo(0))
+                .body("misses", greaterThanOrEqualTo(0))
+                .body("evictions", greaterThanOrEqualTo(0));
+    }
+
+    @Test
+    void testConcurrentCreateWithSameEmail() throws Exception {
+        String userJson = """
+            {
+                "name": "Racing User",
+                "email": "racing@example.com",
+                "age": 27
+            }
+            """;
+
+        int attempts = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            statuses.add(executor.submit(() -> {
+                start.await();
+                return given()
+                        .contentType(ContentType.JSON)
+                        .body(userJson)
+                        .when()
+                        .post("/users")
+                        .statusCode();
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        int rejected = 0;
+        for (Future<Integer> status : statuses) {
+            int code = status.get();
+            if (code == HttpStatus.CREATED.value()) {
+                created++;
+            } else if (code == HttpStatus.BAD_REQUEST.value()) {
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, created);
+        assertEquals(attempts - 1, rejected);
+    }
+
+    @Test
+    void testConditionalGetUserById() {
+        Response created = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "ETag User", "email": "etag@example.com", "age": 40}
+                    """)
+                .when()
+                .post("/users");
+        Integer id = created.path("id");
+        String etag = created.header("ETag");
+        assertEquals("\"0\"", etag);
+
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .header("ETag", etag)
+                .body(emptyString());
+
+        String updatedEtag = given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", etag)
+                .body("""
+                    {"name": "ETag User", "email": "etag@example.com", "age": 41}
+                    """)
+                .when()
+                .put("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("version", equalTo(1))
+                .extract().header("ETag");
+        assertEquals("\"1\"", updatedEtag);
+
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", updatedEtag)
+                .body("age", equalTo(41));
+    }
+
+    @Test
+    void testIfMatchMismatchIsRejected() {
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Stale Writer", "email": "stale@example.com", "age": 22}
+                    """)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().path("id");
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "\"7\"")
+                .body("""
+                    {"name": "Stale Writer", "email": "stale@example.com", "age": 23}
+                    """)
+                .when()
+                .put("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+
+        given()
+                .header("If-Match", "\"7\"")
+                .when()
+                .delete("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+
+        given()
+                .when()
+                .get("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("age", equalTo(22));
+
+        given()
+                .header("If-Match", "\"0\"")
+                .when()
+                .delete("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    @Test
+    void testIfMatchListAndWildcard() {
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "List Writer", "email": "ifmatch-list@example.com", "age": 30}
+                    """)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().path("id");
+
+        // Any strong tag of the list may match; weak tags never do
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "W/\"0\", \"7\", \"0\"")
+                .body("""
+                    {"name": "List Writer", "email": "ifmatch-list@example.com", "age": 31}
+                    """)
+                .when()
+                .put("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", "\"1\"");
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "W/\"1\"")
+                .body("""
+                    {"age": 32}
+                    """)
+                .when()
+                .patch("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "*")
+                .body("""
+                    {"age": 32}
+                    """)
+                .when()
+                .patch("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("age", equalTo(32));
+
+        given()
+                .header("If-Match", "*")
+                .when()
+                .delete("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        // "*" requires a current user: a missing one fails the precondition instead of giving 404
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "*")
+                .body("""
+                    {"name": "List Writer", "email": "ifmatch-list@example.com", "age": 33}
+                    """)
+                .when()
+                .put("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+
+        given()
+                .header("If-Match", "*")
+                .when()
+                .delete("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+
+        given()
+                .header("If-Match", "\"0\", \"1\"")
+                .when()
+                .delete("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    void testMalformedIfMatchIsABadRequest() {
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Malformed Writer", "email": "ifmatch-malformed@example.com", "age": 30}
+                    """)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().path("id");
+
+        // Unquoted, unterminated and empty lists are not entity tags at all
+        for (String header : List.of("0", "\"0", " , ")) {
+            given()
+                    .contentType(ContentType.JSON)
+                    .header("If-Match", header)
+                    .body("""
+                        {"age": 31}
+                        """)
+                    .when()
+                    .patch("/users/" + id)
+                    .then()
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .body("message", equalTo("If-Match must be * or a list of entity tags"));
+
+            given()
+                    .header("If-Match", header)
+                    .when()
+                    .delete("/users/" + id)
+                    .then()
+                    .statusCode(HttpStatus.BAD_REQUEST.value());
+        }
+
+        given()
+                .when()
+                .get("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("age", equalTo(30));
+    }
+
+    @Test
+    void testCollectionEtagChangesOnWrite() {
+        String etag = given()
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().header("ETag");
+
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value());
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Collection ETag", "email": "collection-etag@example.com", "age": 35}
+                    """)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", not(equalTo(etag)))
+                .body("email", hasItem("collection-etag@example.com"));
+    }
+
+    @Test
+    void testCollectionEtagChangesOnWriteOfAnotherInstance() {
+        String etag = given()
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().header("ETag");
+
+        // What a write committed by another instance does to the shared counter row
+        transaction.executeWithoutResult(status -> userStore.incrementChangeCounter());
+
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", not(equalTo(etag)));
+    }
+
+    @Test
+    void testPatchUser() {
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Patch Me", "email": "patchme@example.com", "age": 50}
+                    """)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().path("id");
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "\"0\"")
+                .body("""
+                    {"age": 51}
+                    """)
+                .when()
+                .patch("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", "\"1\"")
+                .body("name", equalTo("Patch Me"))
+                .body("email", equalTo("patchme@example.com"))
+                .body("age", equalTo(51));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"age": -1}
+                    """)
+                .when()
+                .patch("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Age must be positive"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Dup Target", "email": "patch-dup-target@example.com", "age": 30}
+                    """)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"email": "patch-dup-target@example.com"}
+                    """)
+                .when()
+                .patch("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Email already exists"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"age": 52}
+                    """)
+                .when()
+                .patch("/users/999999")
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    void testSearchUsersByAgeRangeAndNamePrefix() {
+        for (int i = 0; i < 5; i++) {
+            given()
+                    .contentType(ContentType.JSON)
+                    .body(String.format("{\"name\": \"Zed Searcher %d\", \"email\": \"zed%d@example.com\", \"age\": %d}",
+                            i, i, 90 + i))
+                    .when()
+                    .post("/users")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value());
+        }
+
+        JsonPath first = given()
+                .queryParam("minAge", 91)
+                .queryParam("maxAge", 93)
+                .queryParam("limit", 2)
+                .when()
+                .get("/users/search")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("users.age", contains(91, 92))
+                .body("nextCursor", notNullValue())
+                .extract().jsonPath();
+
+        given()
+                .queryParam("minAge", 91)
+                .queryParam("maxAge", 93)
+                .queryParam("limit", 2)
+                .queryParam("after", first.getString("nextCursor"))
+                .when()
+                .get("/users/search")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("users.age", contains(93))
+                .body("nextCursor", nullValue());
+
+        given()
+                .queryParam("namePrefix", "Zed Searcher")
+                .queryParam("maxAge", 92)
+                .when()
+                .get("/users/search")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("users.name", contains("Zed Searcher 0", "Zed Searcher 1", "Zed Searcher 2"));
+
+        given()
+                .queryParam("minAge", 50)
+                .queryParam("maxAge", 10)
+                .when()
+                .get("/users/search")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("minAge must not be greater than maxAge"));
+    }
+}
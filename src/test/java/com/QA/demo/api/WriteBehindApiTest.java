@@ -0,0 +1,115 @@
+package com.QA.demo.api;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehinddb;DB_CLOSE_DELAY=-1",
+        "user.write-behind.enabled=true"
+})
+@ActiveProfiles("test")
+public class WriteBehindApiTest {
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        RestAssured.port = port;
+        RestAssured.basePath = "/api";
+    }
+
+    @Test
+    void testCreateIsAcceptedAndWrittenInTheBackground() throws InterruptedException {
+        Response accepted = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Queued User", "email": "queued@example.com", "age": 27}
+                    """)
+                .when()
+                .post("/users");
+
+        accepted.then()
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .header("Location", startsWith("/api/users/writes/"))
+                .body("trackingId", notNullValue())
+                .body("status", equalTo("PENDING"));
+
+        Response status = awaitWrite(accepted.path("trackingId"));
+        status.then()
+                .body("status", equalTo("CREATED"))
+                .body("user.email", equalTo("queued@example.com"));
+
+        Integer id = status.path("user.id");
+        given().when().get("/users/" + id).then()
+                .statusCode(HttpStatus.OK.value())
+                .body("name", equalTo("Queued User"));
+    }
+
+    @Test
+    void testDuplicateEmailIsRejectedBeforeQueueing() throws InterruptedException {
+        String userJson = """
+            {"name": "Reserved User", "email": "reserved@example.com", "age": 31}
+            """;
+        String trackingId = given().contentType(ContentType.JSON).body(userJson)
+                .when().post("/users")
+                .then().statusCode(HttpStatus.ACCEPTED.value())
+                .extract().path("trackingId");
+
+        // Rejected whether the first user is still queued or already written
+        given().contentType(ContentType.JSON).body(userJson)
+                .when().post("/users")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Email already exists"));
+
+        assertEquals("CREATED", awaitWrite(trackingId).path("status"));
+        given().contentType(ContentType.JSON).body(userJson)
+                .when().post("/users")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Email already exists"));
+    }
+
+    @Test
+    void testInvalidUserIsRejectedWithoutTrackingId() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "", "email": "invalid@example.com", "age": 31}
+                    """)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Name cannot be empty"));
+    }
+
+    @Test
+    void testUnknownTrackingIdIsNotFound() {
+        given().when().get("/users/writes/no-such-id").then().statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    private Response awaitWrite(String trackingId) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            Response status = given().when().get("/users/writes/" + trackingId);
+            assertEquals(HttpStatus.OK.value(), status.statusCode());
+            if (!"PENDING".equals(status.path("status"))) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Write " + trackingId + " still pending");
+    }
+}
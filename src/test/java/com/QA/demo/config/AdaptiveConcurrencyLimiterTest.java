@@ -0,0 +1,71 @@
+package com.QA.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void requestOverTheLimit_ShouldGetThe503BodyAndNeverReachTheChain() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1.5, 10,
+                meterRegistry, new ObjectMapper());
+        assertTrue(limiter.getReads().tryAcquire());
+
+        for (int i = 0; i < 2; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            limiter.doFilter(new MockHttpServletRequest("GET", "/api/users/1"), response, chain);
+
+            assertEquals(503, response.getStatus());
+            assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+            assertEquals("{\"message\":\"Server is overloaded, try again later\"}", response.getContentAsString());
+            assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+            assertNull(chain.getRequest(), "A shed request must not reach the controller");
+        }
+        assertEquals(2.0, meterRegistry.counter("user.limiter.rejected", "type", "read").count());
+    }
+
+    @Test
+    void slowExport_ShouldHoldAReadPermitButNotShrinkTheReadLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 4, 100, 1.5, 1,
+                new SimpleMeterRegistry(), new ObjectMapper());
+        GradientLimit reads = limiter.getReads();
+        // Full concurrency, so every sampled request closes a window that adjusts the limit
+        for (int i = 0; i < 9; i++) {
+            assertTrue(reads.tryAcquire());
+        }
+        limiter.doFilter(get("/api/users/1"), new MockHttpServletResponse(), new MockFilterChain());
+        int limit = reads.getLimit();
+
+        int[] inflight = new int[1];
+        for (int i = 0; i < 3; i++) {
+            // Much slower than the baseline read: as samples these would halve the gradient every window
+            limiter.doFilter(get("/api/users/export"), new MockHttpServletResponse(), (request, response) -> {
+                inflight[0] = reads.getInflight();
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        assertEquals(10, inflight[0]);
+        assertEquals(9, reads.getInflight());
+        assertEquals(limit, reads.getLimit());
+    }
+
+    private static MockHttpServletRequest get(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+}
@@ -0,0 +1,110 @@
+package com.QA.demo.config;
+
+import com.QA.demo.model.User;
+import com.QA.demo.service.DatabaseBusyException;
+import com.QA.demo.service.IfMatch;
+import com.QA.demo.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Permits and pool are both tiny, so a permit ever taken while holding a connection shows up as a DatabaseBusyException
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:dblimiterdb;DB_CLOSE_DELAY=-1",
+        "spring.threads.virtual.enabled=true",
+        "spring.jpa.open-in-view=false",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "user.db.max-concurrency=2",
+        "user.db.acquire-timeout=5s"
+})
+@ActiveProfiles("test")
+public class DatabaseConcurrencyLimiterTest {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private DatabaseConcurrencyLimiter limiter;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void mixedCallsOnManyThreads_ShouldNeverDeadlockOnPermitsAndConnections() throws Exception {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 32; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    User user = userService.createUser(newUser());
+                    // Cache misses (no transaction), then a write, then transactional reads
+                    userService.getUserVersion(user.getId());
+                    userService.getUserById(user.getId());
+                    userService.updateUser(user.getId(), new User(null, "Renamed", user.getEmail(), 41),
+                            IfMatch.version(user.getVersion()));
+                    userService.getUsersPage(null, 10, true);
+                    userService.searchUsers(40, 50, null, null, 10);
+                    userService.deleteUser(user.getId());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(2, limiter.availablePermits(), "Every permit should be back");
+    }
+
+    @Test
+    void callsServedFromMemory_ShouldNotNeedAPermit() {
+        User user = userService.createUser(newUser());
+        userService.getUserById(user.getId());
+
+        Semaphore permits = (Semaphore) ReflectionTestUtils.getField(limiter, "permits");
+        int drained = permits.drainPermits();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+                assertTrue(userService.getUserById(user.getId()).isPresent());
+                userService.getStats();
+                userService.getCacheStats();
+            });
+            assertThrows(DatabaseBusyException.class, () -> userService.getUsersPage(null, 10, false));
+        } finally {
+            permits.release(drained);
+        }
+    }
+
+    @Test
+    void acquire_ShouldHoldOnePermitPerThread_UntilClosed() throws Exception {
+        try (DatabaseConcurrencyLimiter.Permit outer = limiter.acquire()) {
+            assertEquals(1, limiter.availablePermits());
+            try (DatabaseConcurrencyLimiter.Permit nested = limiter.acquire()) {
+                assertSame(DatabaseConcurrencyLimiter.Permit.NONE, nested);
+                // Service calls on this thread run under the permit already held
+                userService.getUsersPage(null, 10, false);
+                assertEquals(1, limiter.availablePermits());
+            }
+            assertEquals(1, limiter.availablePermits());
+        }
+        assertEquals(2, limiter.availablePermits());
+    }
+
+    private static User newUser() {
+        return new User(null, "Limited User", "limited" + SEQUENCE.incrementAndGet() + "@test.com", 30);
+    }
+}
@@ -0,0 +1,111 @@
+package com.QA.demo.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradientLimitTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void tryAcquire_ShouldRejectOverTheLimitWithoutBlocking() {
+        GradientLimit limit = new GradientLimit(2, 1, 10, 1.5, 10);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInflight());
+
+        limit.release(MILLIS, false);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void steadyLatencyAtFullConcurrency_ShouldGrowTheLimit() {
+        GradientLimit limit = new GradientLimit(10, 2, 100, 1.5, 10);
+
+        runWindows(limit, 20, 10 * MILLIS);
+
+        assertTrue(limit.getLimit() > 10, "Limit " + limit.getLimit());
+    }
+
+    @Test
+    void queueingLatency_ShouldShrinkTheLimitDownToTheMinimum() {
+        GradientLimit limit = new GradientLimit(20, 4, 100, 1.5, 10);
+        runWindows(limit, 5, 10 * MILLIS);
+        int before = limit.getLimit();
+
+        runWindows(limit, 5, 100 * MILLIS);
+        assertTrue(limit.getLimit() < before, "Limit " + limit.getLimit() + " not below " + before);
+
+        runWindows(limit, 100, 100 * MILLIS);
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void lightLoad_ShouldLeaveTheLimitAlone() {
+        GradientLimit limit = new GradientLimit(20, 4, 100, 1.5, 10);
+
+        // One request at a time says nothing about how many the backend could take
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(100 * MILLIS, false);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void failures_ShouldShrinkTheLimitEvenAtSteadyLatency() {
+        GradientLimit limit = new GradientLimit(20, 4, 100, 1.5, 10);
+
+        for (int window = 0; window < 5; window++) {
+            int permits = limit.getLimit();
+            for (int i = 0; i < permits; i++) {
+                assertTrue(limit.tryAcquire());
+            }
+            for (int i = 0; i < permits; i++) {
+                limit.release(10 * MILLIS, true);
+            }
+        }
+
+        assertTrue(limit.getLimit() < 20, "Limit " + limit.getLimit());
+    }
+
+    @Test
+    void unsampledReleases_ShouldFreeThePermitWithoutCompletingAWindow() {
+        GradientLimit limit = new GradientLimit(10, 2, 100, 1.5, 2);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+
+        // Counted as samples, these would close five windows at full concurrency and grow the limit
+        for (int i = 0; i < 10; i++) {
+            limit.releaseUnsampled();
+        }
+
+        assertEquals(0, limit.getInflight());
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void constructor_ShouldRejectInconsistentBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new GradientLimit(2, 4, 100, 1.5, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GradientLimit(200, 4, 100, 1.5, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GradientLimit(4, 0, 100, 1.5, 10));
+    }
+
+    // Fills every permit, then completes them all with the same latency
+    private static void runWindows(GradientLimit limit, int windows, long rttNanos) {
+        for (int window = 0; window < windows; window++) {
+            int permits = limit.getLimit();
+            for (int i = 0; i < permits; i++) {
+                assertTrue(limit.tryAcquire());
+            }
+            for (int i = 0; i < permits; i++) {
+                limit.release(rttNanos, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.QA.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IdempotencyFilter filter = filter(DataSize.ofBytes(16));
+
+    @Test
+    void keyedRequest_ShouldOnlyBeHandledUnderTheUsersServletPath() throws Exception {
+        // Deployed under a context path: the request URI no longer starts with /api/users
+        assertTrue(handled(keyedPost("/app", "/api/users")));
+        assertTrue(handled(keyedPost("/app", "/api/users/batch")));
+        assertFalse(handled(keyedPost("", "/api/usersX")));
+        assertFalse(handled(keyedPost("", "/api/other")));
+    }
+
+    @Test
+    void bodyOverTheLimit_ShouldBe413_WithOrWithoutContentLength() throws Exception {
+        byte[] body = "{\"name\":\"Too Long\"}".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletRequest declared = keyedPost("", "/api/users");
+        declared.setContent(body);
+        // A chunked request has no Content-Length, so only the read can catch it
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/api/users") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunked.setServletPath("/api/users");
+        chunked.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, "too-large");
+        chunked.setContent(body);
+
+        for (MockHttpServletRequest request : List.of(declared, chunked)) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, chain);
+
+            assertEquals(413, response.getStatus());
+            assertEquals("{\"message\":\"Request body must not exceed 16 bytes with an Idempotency-Key\"}",
+                    response.getContentAsString());
+            assertNull(chain.getRequest(), "An oversized request must not reach the controller");
+        }
+        assertEquals(2.0, meterRegistry.counter("user.idempotency.requests", "outcome", "too_large").count());
+    }
+
+    @Test
+    void bufferedBody_ShouldBeDeliveredToAReadListener() throws Exception {
+        MockHttpServletRequest request = keyedPost("", "/api/users");
+        request.setContent("{\"age\":35}".getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        ServletInputStream input = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> calls = new ArrayList<>();
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                calls.add("onDataAvailable");
+                byte[] buffer = new byte[4];
+                int length;
+                while (input.isReady() && !input.isFinished() && (length = input.read(buffer, 0, buffer.length)) > 0) {
+                    read.write(buffer, 0, length);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                calls.add("onAllDataRead");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                calls.add("onError");
+            }
+        });
+
+        assertEquals(List.of("onDataAvailable", "onAllDataRead"), calls);
+        assertEquals("{\"age\":35}", read.toString(StandardCharsets.UTF_8));
+    }
+
+    private IdempotencyFilter filter(DataSize maxBodySize) {
+        IdempotencyFilter filter = new IdempotencyFilter(Duration.ofMinutes(1), DataSize.ofMegabytes(1),
+                Duration.ofSeconds(1), maxBodySize, meterRegistry);
+        ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper());
+        return filter;
+    }
+
+    private static MockHttpServletRequest keyedPost(String contextPath, String servletPath) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", contextPath + servletPath);
+        request.setContextPath(contextPath);
+        request.setServletPath(servletPath);
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, "key-" + servletPath);
+        return request;
+    }
+
+    // A handled request reaches the controller with its buffered copy of the body
+    private boolean handled(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        ServletRequest passed = chain.getRequest();
+        assertNotNull(passed);
+        return passed != request;
+    }
+}
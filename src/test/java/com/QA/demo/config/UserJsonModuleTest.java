@@ -0,0 +1,39 @@
+package com.QA.demo.config;
+
+import com.QA.demo.controller.UserController;
+import com.QA.demo.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserJsonModuleTest {
+
+    private final ObjectMapper reflective = new ObjectMapper();
+    private final ObjectMapper handWritten = new ObjectMapper().registerModule(new UserJsonModule());
+
+    @Test
+    void handWrittenSerializers_ShouldMatchTheAnnotatedBeanOutput() throws Exception {
+        User versioned = new User(7L, "Jane \"JJ\" Doe", "jane@example.com", 41);
+        versioned.setVersion(3L);
+        User unsaved = new User(null, "Ünïcode Ñame", "new@example.com", null);
+
+        List<Object> values = List.of(versioned, unsaved, List.of(versioned, unsaved),
+                new UserController.ErrorResponse("Email already exists"),
+                new UserController.ErrorResponse(null));
+        for (Object value : values) {
+            assertEquals(reflective.writeValueAsString(value), handWritten.writeValueAsString(value));
+        }
+    }
+
+    @Test
+    void handWrittenSerializers_ShouldLeaveDeserializationAlone() throws Exception {
+        // version is read-only in the bean mapping and must stay ignored on input
+        User read = handWritten.readValue("{\"name\":\"A\",\"email\":\"a@example.com\",\"age\":20,\"version\":9}", User.class);
+
+        assertEquals("A", read.getName());
+        assertNull(read.getVersion());
+    }
+}
@@ -0,0 +1,86 @@
+package com.QA.demo.config;
+
+import com.QA.demo.repository.UserRepository;
+import com.QA.demo.service.UserService;
+import com.QA.demo.service.UserTableVersion;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The warm-up runs during context start; by the time a test runs it is over
+public class WarmupRunnerTest {
+
+    private static final int ITERATIONS = 20;
+
+    abstract static class WarmedUp {
+
+        @Autowired
+        private WarmupRunner warmupRunner;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private UserService userService;
+
+        @Autowired
+        private UserTableVersion userTableVersion;
+
+        @Test
+        void warmupRunsEveryIterationAndCommitsNothing() {
+            assertEquals(ITERATIONS, warmupRunner.getCompletedIterations());
+            assertEquals(0, userRepository.count());
+            assertEquals(0, userService.getStats().getTotal());
+            assertEquals(0, userService.getCacheStats().getSize());
+            assertTrue(userTableVersion.current().orElseThrow().endsWith("-0"), userTableVersion.current().orElseThrow());
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.datasource.url=jdbc:h2:mem:warmupdb;DB_CLOSE_DELAY=-1",
+            "user.warmup.enabled=true",
+            "user.warmup.iterations=" + ITERATIONS
+    })
+    @ActiveProfiles("test")
+    class Direct extends WarmedUp {
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.datasource.url=jdbc:h2:mem:warmupwritebehinddb;DB_CLOSE_DELAY=-1",
+            "user.warmup.enabled=true",
+            "user.warmup.iterations=" + ITERATIONS,
+            "user.write-behind.enabled=true"
+    })
+    @ActiveProfiles("test")
+    class WriteBehind extends WarmedUp {
+    }
+
+    // The warm-up filter takes the only permit before the only connection, and gives both back
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.datasource.url=jdbc:h2:mem:warmupvirtualdb;DB_CLOSE_DELAY=-1",
+            "user.warmup.enabled=true",
+            "user.warmup.iterations=" + ITERATIONS,
+            "spring.threads.virtual.enabled=true",
+            "spring.jpa.open-in-view=false",
+            "spring.datasource.hikari.maximum-pool-size=1",
+            "user.db.max-concurrency=1"
+    })
+    @ActiveProfiles("test")
+    class VirtualThreads extends WarmedUp {
+
+        @Autowired
+        private DatabaseConcurrencyLimiter limiter;
+
+        @Test
+        void warmupReturnsEveryPermit() {
+            assertEquals(1, limiter.availablePermits());
+        }
+    }
+}
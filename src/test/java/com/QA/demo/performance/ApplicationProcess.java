@@ -0,0 +1,97 @@
+package com.QA.demo.performance;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@code DemoApplication} started in its own JVM on a free port, for measurements that need a
+ * cold JVM. Output goes to {@code target/<name>.log}.
+ */
+class ApplicationProcess implements AutoCloseable {
+
+    static final Path TARGET = Path.of("target");
+    private static final Pattern VM_RSS = Pattern.compile("VmRSS:\\s+(\\d+) kB");
+
+    private final Process process;
+    private final long startNanos;
+    private final int port;
+    private final File log;
+
+    private ApplicationProcess(Process process, long startNanos, int port, File log) {
+        this.process = process;
+        this.startNanos = startNanos;
+        this.port = port;
+        this.log = log;
+    }
+
+    static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    // The test class path already holds the application and all its dependencies
+    static List<String> classPathCommand() {
+        return List.of(java(), "-cp", System.getProperty("java.class.path"), "com.QA.demo.DemoApplication");
+    }
+
+    static ApplicationProcess start(String name, List<String> command, String... arguments) throws IOException {
+        int port = freePort();
+        List<String> commandLine = new ArrayList<>(command);
+        commandLine.add("--server.port=" + port);
+        commandLine.add("--spring.jpa.show-sql=false");
+        commandLine.addAll(List.of(arguments));
+        File log = TARGET.resolve(name + ".log").toFile();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(commandLine).redirectErrorStream(true).redirectOutput(log).start();
+        return new ApplicationProcess(process, start, port, log);
+    }
+
+    String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    long millisSinceStart() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    File log() {
+        return log;
+    }
+
+    String output() throws IOException {
+        return Files.readString(log.toPath());
+    }
+
+    // Linux only; null elsewhere
+    Long residentSetKb() throws IOException {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        if (!Files.isReadable(status)) {
+            return null;
+        }
+        Matcher rss = VM_RSS.matcher(Files.readString(status));
+        return rss.find() ? Long.parseLong(rss.group(1)) : null;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        process.waitFor();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.QA.demo.performance;
+
+import com.QA.demo.model.User;
+import com.QA.demo.model.UserBatchResult;
+import com.QA.demo.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batchdb;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+public class BatchInsertPerformanceTest {
+
+    private static final int USER_COUNT = 10_000;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testBatchCreateUsesFewRoundTrips() {
+        System.out.println("=== BATCH INSERT PERFORMANCE TEST ===");
+
+        List<User> users = new ArrayList<>(USER_COUNT);
+        for (int i = 0; i < USER_COUNT; i++) {
+            users.add(new User(null, "Batch User " + i, "batchuser" + i + "@test.com", 20 + (i % 40)));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long startTime = System.nanoTime();
+        List<UserBatchResult> results = userService.createUsers(users);
+        long duration = (System.nanoTime() - startTime) / 1_000_000;
+
+        long created = results.stream().filter(r -> UserBatchResult.CREATED.equals(r.getStatus())).count();
+        long statements = statistics.getPrepareStatementCount();
+
+        System.out.println("Users created: " + created);
+        System.out.println("Entities inserted: " + statistics.getEntityInsertCount());
+        System.out.println("JDBC statements prepared: " + statements);
+        System.out.println("Total time: " + duration + "ms");
+
+        assertEquals(USER_COUNT, created);
+        assertEquals(USER_COUNT, statistics.getEntityInsertCount());
+        // 20 email IN queries + ~21 pooled sequence calls + 20 insert batches, nowhere near one per row
+        assertTrue(statements <= 64, "Expected batched inserts but saw " + statements + " statements");
+    }
+}
@@ -0,0 +1,112 @@
+package com.QA.demo.performance;
+
+import com.QA.demo.model.UserFieldsPage;
+import com.QA.demo.model.UserPage;
+import com.QA.demo.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:projectiondb;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.QA.demo.performance.FieldProjectionTest$RecordingInspector"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+public class FieldProjectionTest {
+
+    private static final int ROW_COUNT = 10_000;
+    private static final int PAGE_SIZE = 1000;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email, age, version) " +
+                "SELECT X, CONCAT('Projection User ', X), CONCAT('projection', X, '@test.com'), 18 + MOD(X, 60), 0 " +
+                "FROM SYSTEM_RANGE(1, ?)", ROW_COUNT);
+        RecordingInspector.STATEMENTS.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE users");
+    }
+
+    @Test
+    void testFieldsSelectOnlyRequestedColumnsAndBuildNoEntities() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Warm up both paths so the comparison is not about first-query costs
+        userService.getUsersPage(null, PAGE_SIZE, false);
+        userService.getUserFieldsPage("id,name", null, PAGE_SIZE, false);
+
+        statistics.clear();
+        RecordingInspector.STATEMENTS.clear();
+        UserFieldsPage projected = userService.getUserFieldsPage("id,name", null, PAGE_SIZE, false);
+        long projectedLoads = statistics.getEntityLoadCount();
+        String projectedSql = RecordingInspector.STATEMENTS.get(0).toLowerCase(Locale.ROOT);
+
+        statistics.clear();
+        UserPage full = userService.getUsersPage(null, PAGE_SIZE, false);
+        long fullLoads = statistics.getEntityLoadCount();
+
+        int projectedBytes = objectMapper.writeValueAsBytes(projected).length;
+        int fullBytes = objectMapper.writeValueAsBytes(full).length;
+
+        System.out.println("Projected SQL: " + projectedSql);
+        System.out.println("Entity loads: full " + fullLoads + ", projected " + projectedLoads);
+        System.out.println("JSON bytes per page: full " + fullBytes + ", projected " + projectedBytes);
+
+        assertEquals(PAGE_SIZE, projected.getUsers().size());
+        assertEquals(full.getNextCursor(), projected.getNextCursor());
+        assertEquals(full.getUsers().get(0).getName(), projected.getUsers().get(0).name());
+        assertNull(projected.getUsers().get(0).email());
+
+        assertEquals(0, projectedLoads, "Projection rows must not be loaded as entities");
+        assertEquals(PAGE_SIZE + 1, fullLoads);
+        String selectList = projectedSql.substring(0, projectedSql.indexOf(" from "));
+        assertTrue(selectList.contains("name"), projectedSql);
+        assertFalse(selectList.contains("email"), "Unrequested column selected: " + projectedSql);
+        assertFalse(selectList.contains("age"), "Unrequested column selected: " + projectedSql);
+        assertTrue(projectedBytes < fullBytes / 2, "Projection saved too few bytes: " + projectedBytes + " vs " + fullBytes);
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.QA.demo.performance;
+
+import com.QA.demo.model.UserPage;
+import com.QA.demo.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Own database so the seeded rows never leak into the shared test schema. 100k rows by default,
+// -Pprocess-benchmarks (or -Dkeyset.rows) raises it to 1M.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:keysetdb;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+public class KeysetPaginationMemoryTest {
+
+    private static final int ROW_COUNT = Integer.getInteger("keyset.rows", 100_000);
+    private static final int PAGE_SIZE = 1000;
+    private static final long MAX_HEAP_GROWTH_BYTES = 64L * 1024 * 1024;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("INSERT INTO users (id, name, email, age) " +
+                "SELECT X, CONCAT('Keyset User ', X), CONCAT('keyset', X, '@test.com'), 18 + MOD(X, 60) " +
+                "FROM SYSTEM_RANGE(1, ?)", ROW_COUNT);
+        System.out.println("Seeded " + ROW_COUNT + " users in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE users");
+    }
+
+    @Test
+    void testHeapStaysFlatWhileWalkingAllPages() {
+        System.out.println("=== KEYSET PAGINATION MEMORY TEST ===");
+
+        // Warm up the query plan and Jackson/Hibernate metadata before taking the baseline
+        UserPage page = userService.getUsersPage(null, PAGE_SIZE, false);
+        long baseline = usedHeapAfterGc();
+        long peak = baseline;
+
+        int pages = 1;
+        int rows = page.getUsers().size();
+        long startTime = System.nanoTime();
+
+        while (page.getNextCursor() != null) {
+            page = userService.getUsersPage(page.getNextCursor(), PAGE_SIZE, false);
+            pages++;
+            rows += page.getUsers().size();
+            if (pages % 100 == 0) {
+                peak = Math.max(peak, usedHeapAfterGc());
+            }
+        }
+        peak = Math.max(peak, usedHeapAfterGc());
+
+        long duration = (System.nanoTime() - startTime) / 1_000_000;
+        long growth = peak - baseline;
+
+        System.out.println("Pages walked: " + pages);
+        System.out.println("Rows read: " + rows);
+        System.out.println("Total time: " + duration + "ms");
+        System.out.println("Average time per page: " + String.format("%.2f", (double) duration / pages) + "ms");
+        System.out.println("Baseline heap: " + baseline / (1024 * 1024) + "MB");
+        System.out.println("Peak heap growth: " + growth / (1024 * 1024) + "MB");
+
+        assertEquals(ROW_COUNT, rows);
+        assertTrue(growth < MAX_HEAP_GROWTH_BYTES,
+                "Heap grew by " + growth + " bytes while paging, expected it to stay flat");
+    }
+
+    private long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -4,6 +4,7 @@ import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 
@@ -20,6 +21,9 @@ public class LoadTest {
     @LocalServerPort
     private int port;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @BeforeEach
     void setUp() {
         RestAssured.port = port;
@@ -29,13 +33,22 @@ public class LoadTest {
     @Test
     void testApiLoadPerformance() throws InterruptedException, ExecutionException {
         System.out.println("=== API LOAD PERFORMANCE TEST ===");
+        runCreateUserLoad(10, 10);
+    }
+
+    @Test
+    void testApiLoadPerformanceAtHighConcurrency() throws InterruptedException, ExecutionException {
+        System.out.println("=== API LOAD PERFORMANCE TEST (HIGH CONCURRENCY) ===");
+        runCreateUserLoad(200, 5);
+    }
 
-        int threadCount = 10;
-        int requestsPerThread = 10;
+    private void runCreateUserLoad(int threadCount, int requestsPerThread) throws InterruptedException, ExecutionException {
         ExecutorService executor = Executors.newFixedThreadPool(threadCount);
         List<Callable<LoadResult>> tasks = new ArrayList<>();
 
         AtomicInteger requestCounter = new AtomicInteger(0);
+        // Keeps emails unique when several scenarios run against the same database
+        long runId = System.nanoTime();
 
         for (int i = 0; i < threadCount; i++) {
             tasks.add(() -> {
@@ -46,8 +59,8 @@ public class LoadTest {
                 for (int j = 0; j < requestsPerThread; j++) {
                     int requestId = requestCounter.incrementAndGet();
                     String userJson = String.format(
-                            "{\"name\": \"LoadUser-%d\", \"email\": \"loaduser%d@test.com\", \"age\": %d}",
-                            requestId, requestId, 20 + (requestId % 30)
+                            "{\"name\": \"LoadUser-%d\", \"email\": \"loaduser%d-%d@test.com\", \"age\": %d}",
+                            requestId, runId, requestId, 20 + (requestId % 30)
                     );
 
                     try {
@@ -98,6 +111,7 @@ public class LoadTest {
         int totalRequests = totalSuccess + totalErrors;
 
         System.out.println("=== LOAD TEST RESULTS ===");
+        System.out.println("Server Threads: " + (virtualThreads ? "virtual" : "platform"));
         System.out.println("Total API Requests: " + totalRequests);
         System.out.println("Successful: " + totalSuccess);
         System.out.println("Errors: " + totalErrors);
@@ -121,4 +135,4 @@ public class LoadTest {
             this.totalTime = totalTime;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,286 @@
+package com.QA.demo.performance;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Open-model HTTP load generator: requests are started on a fixed schedule (constant arrival
+ * rate) whether or not earlier ones have completed, so a slow server builds a queue instead of
+ * slowing the generator down.
+ *
+ * <p>Latency is measured from the request's <em>intended</em> start time, not the moment it was
+ * actually sent. When the generator falls behind (GC pause, busy client) the delay is charged to
+ * the request, which is the coordinated-omission correction. The uncorrected service time, from
+ * the actual send, is recorded alongside for comparison.
+ *
+ * <p>503 responses are load shedding, not failures: they are counted as shed, and their latency
+ * goes to a histogram of its own so the percentiles describe the requests that were served.
+ *
+ * <p>Against a running server:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.QA.demo.performance.OpenModelLoadGenerator \
+ *     -Dload.baseUrl=http://localhost:8080 -Dload.rate=500 -Dload.duration=60s \
+ *     -Dload.mix=read=70,write=20,update=5,delete=5   (or -Dload.scenario=path/to/scenario.ndjson)
+ * </pre>
+ */
+public class OpenModelLoadGenerator {
+
+    // Highest latency the histograms track; longer ones are clamped and still counted
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /** Produces the request for each slot of the schedule; only ever called from the scheduling thread. */
+    public interface Workload {
+        PlannedRequest next(long sequence);
+    }
+
+    public static final class PlannedRequest {
+        private final String operation;
+        private final HttpRequest request;
+        private final Consumer<HttpResponse<String>> onResponse;
+
+        public PlannedRequest(String operation, HttpRequest request, Consumer<HttpResponse<String>> onResponse) {
+            this.operation = operation;
+            this.request = request;
+            this.onResponse = onResponse;
+        }
+
+        public PlannedRequest(String operation, HttpRequest request) {
+            this(operation, request, response -> { });
+        }
+    }
+
+    private final HttpClient httpClient;
+
+    public OpenModelLoadGenerator() {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build());
+    }
+
+    public OpenModelLoadGenerator(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI baseUri = URI.create(System.getProperty("load.baseUrl", "http://localhost:8080"));
+        double rate = Double.parseDouble(System.getProperty("load.rate", "100"));
+        Duration duration = Duration.parse("PT" + System.getProperty("load.duration", "30s").toUpperCase());
+        String scenario = System.getProperty("load.scenario");
+
+        UserWorkloads.IdPool ids = new UserWorkloads.IdPool();
+        Workload workload = scenario != null
+                ? UserWorkloads.ndjson(baseUri, Path.of(scenario), ids)
+                : UserWorkloads.mix(baseUri, System.getProperty("load.mix", "read=70,write=20,update=5,delete=5"), ids);
+        new OpenModelLoadGenerator().run(workload, rate, duration).print();
+    }
+
+    public LoadReport run(Workload workload, double requestsPerSecond, Duration duration) throws InterruptedException {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long totalRequests = (long) (requestsPerSecond * duration.toNanos() / TimeUnit.SECONDS.toNanos(1));
+
+        Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<CompletableFuture<?>> inFlight = new ConcurrentLinkedQueue<>();
+        AtomicLong maxSchedulerLagNanos = new AtomicLong();
+
+        long start = System.nanoTime();
+        for (long sequence = 0; sequence < totalRequests; sequence++) {
+            long intendedStart = start + (long) (sequence * intervalNanos);
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            PlannedRequest planned = workload.next(sequence);
+            OperationStats operation = stats.computeIfAbsent(planned.operation, OperationStats::new);
+            long sentAt = System.nanoTime();
+            maxSchedulerLagNanos.accumulateAndGet(sentAt - intendedStart, Math::max);
+
+            inFlight.add(httpClient.sendAsync(planned.request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> {
+                        long completedAt = System.nanoTime();
+                        operation.record(completedAt - intendedStart, completedAt - sentAt, response, failure);
+                        if (response != null) {
+                            planned.onResponse.accept(response);
+                        }
+                    }));
+            // Keep the queue from growing for the whole run
+            while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+                inFlight.poll();
+            }
+        }
+        long scheduleEnd = System.nanoTime();
+
+        try {
+            CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.out.println("Gave up waiting for " + inFlight.stream().filter(f -> !f.isDone()).count()
+                    + " outstanding requests");
+        } catch (ExecutionException e) {
+            // Failures are already counted per operation
+        }
+
+        return new LoadReport(new TreeMap<>(stats), requestsPerSecond, totalRequests,
+                scheduleEnd - start, maxSchedulerLagNanos.get());
+    }
+
+    public static final class OperationStats {
+        private final String name;
+        private final Histogram corrected = newHistogram();
+        private final Histogram uncorrected = newHistogram();
+        private final Histogram shedLatency = newHistogram();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong shed = new AtomicLong();
+        private final AtomicLong clientErrors = new AtomicLong();
+        private final AtomicLong serverErrors = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        OperationStats(String name) {
+            this.name = name;
+        }
+
+        void record(long correctedNanos, long uncorrectedNanos, HttpResponse<String> response, Throwable failure) {
+            completed.incrementAndGet();
+            if (response != null && response.statusCode() == 503) {
+                shed.incrementAndGet();
+                shedLatency.recordValue(Math.min(correctedNanos, MAX_TRACKABLE_NANOS));
+                return;
+            }
+            corrected.recordValue(Math.min(correctedNanos, MAX_TRACKABLE_NANOS));
+            uncorrected.recordValue(Math.min(uncorrectedNanos, MAX_TRACKABLE_NANOS));
+            if (failure != null) {
+                failures.incrementAndGet();
+            } else if (response.statusCode() >= 500) {
+                serverErrors.incrementAndGet();
+            } else if (response.statusCode() >= 400) {
+                clientErrors.incrementAndGet();
+            }
+        }
+
+        private static Histogram newHistogram() {
+            return new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Histogram getCorrected() {
+            return corrected;
+        }
+
+        public Histogram getUncorrected() {
+            return uncorrected;
+        }
+
+        public Histogram getShedLatency() {
+            return shedLatency;
+        }
+
+        public long getCompleted() {
+            return completed.get();
+        }
+
+        public long getShed() {
+            return shed.get();
+        }
+
+        public long getClientErrors() {
+            return clientErrors.get();
+        }
+
+        public long getServerErrors() {
+            return serverErrors.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+    }
+
+    public static final class LoadReport {
+        private final Map<String, OperationStats> operations;
+        private final double targetRate;
+        private final long scheduled;
+        private final long scheduleNanos;
+        private final long maxSchedulerLagNanos;
+
+        LoadReport(Map<String, OperationStats> operations, double targetRate, long scheduled,
+                   long scheduleNanos, long maxSchedulerLagNanos) {
+            this.operations = operations;
+            this.targetRate = targetRate;
+            this.scheduled = scheduled;
+            this.scheduleNanos = scheduleNanos;
+            this.maxSchedulerLagNanos = maxSchedulerLagNanos;
+        }
+
+        public Map<String, OperationStats> getOperations() {
+            return operations;
+        }
+
+        public long getScheduled() {
+            return scheduled;
+        }
+
+        public long getCompleted() {
+            return operations.values().stream().mapToLong(OperationStats::getCompleted).sum();
+        }
+
+        public long getServerErrors() {
+            return operations.values().stream().mapToLong(OperationStats::getServerErrors).sum();
+        }
+
+        public long getFailures() {
+            return operations.values().stream().mapToLong(OperationStats::getFailures).sum();
+        }
+
+        public long getShed() {
+            return operations.values().stream().mapToLong(OperationStats::getShed).sum();
+        }
+
+        public void print() {
+            double seconds = scheduleNanos / 1e9;
+            System.out.printf("Target rate: %.0f req/s, achieved send rate: %.0f req/s, max scheduler lag: %.2fms%n",
+                    targetRate, scheduled / seconds, maxSchedulerLagNanos / 1e6);
+            System.out.printf("%-10s %8s %6s %6s %6s %6s %10s %10s %10s %10s %12s %12s%n",
+                    "operation", "count", "4xx", "5xx", "shed", "fail", "p50 ms", "p99 ms", "p99.9 ms", "max ms",
+                    "p99 raw ms", "p99 shed ms");
+            for (OperationStats operation : operations.values()) {
+                Histogram latency = operation.getCorrected();
+                System.out.printf("%-10s %8d %6d %6d %6d %6d %10.2f %10.2f %10.2f %10.2f %12.2f %12.2f%n",
+                        operation.getName(), operation.getCompleted(), operation.getClientErrors(),
+                        operation.getServerErrors(), operation.getShed(), operation.getFailures(),
+                        millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                        millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()),
+                        millis(operation.getUncorrected().getValueAtPercentile(99)),
+                        millis(operation.getShedLatency().getValueAtPercentile(99)));
+            }
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.QA.demo.performance;
+
+import com.QA.demo.performance.OpenModelLoadGenerator.LoadReport;
+import com.QA.demo.performance.UserWorkloads.IdPool;
+import com.QA.demo.model.User;
+import com.QA.demo.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Constant arrival rate instead of LoadTest's closed loop; latencies include time spent queued
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:openmodeldb;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+public class OpenModelLoadTest {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "100"));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.seconds", 5));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    private URI baseUri;
+    private IdPool ids;
+
+    @BeforeEach
+    void setUp() {
+        baseUri = URI.create("http://localhost:" + port);
+        ids = new IdPool();
+        long runId = System.nanoTime();
+        for (int i = 0; i < 200; i++) {
+            ids.add(userService.createUser(new User(null, "Seed " + i, "seed" + runId + "-" + i + "@test.com", 30)).getId());
+        }
+    }
+
+    @Test
+    void testMixedWorkloadAtConstantArrivalRate() throws Exception {
+        System.out.println("=== OPEN MODEL LOAD TEST (MIX) ===");
+        LoadReport report = new OpenModelLoadGenerator()
+                .run(UserWorkloads.mix(baseUri, "read=70,write=20,update=5,delete=5", ids), RATE, DURATION);
+        report.print();
+
+        assertCompletedWithoutErrors(report);
+        assertTrue(report.getOperations().containsKey("read"));
+        assertTrue(report.getOperations().containsKey("write"));
+    }
+
+    @Test
+    void testNdjsonScenarioReplay() throws Exception {
+        System.out.println("=== OPEN MODEL LOAD TEST (NDJSON SCENARIO) ===");
+        LoadReport report = new OpenModelLoadGenerator()
+                .run(UserWorkloads.ndjson(baseUri, new ClassPathResource("load/mixed-scenario.ndjson").getFile().toPath(), ids),
+                        RATE, DURATION);
+        report.print();
+
+        assertCompletedWithoutErrors(report);
+        assertEquals(4, report.getOperations().size(), "Expected create, get, page and patch");
+    }
+
+    // 4xx responses are legitimate under a mix (a read of a user deleted a moment earlier, or 412 from racing
+    // updates to one row), so only creates must be clean
+    private void assertCompletedWithoutErrors(LoadReport report) {
+        assertEquals(report.getScheduled(), report.getCompleted(), "Every scheduled request should complete");
+        assertEquals(0, report.getFailures(), "Transport failures");
+        assertEquals(0, report.getServerErrors(), "5xx responses");
+        assertEquals(0, report.getShed(), "503 responses");
+        report.getOperations().values().stream()
+                .filter(operation -> operation.getName().equals("write") || operation.getName().equals("create"))
+                .forEach(operation -> assertEquals(0, operation.getClientErrors(), operation.getName() + " got 4xx responses"));
+    }
+}
@@ -0,0 +1,148 @@
+package com.QA.demo.performance;
+
+import com.QA.demo.config.AdaptiveConcurrencyLimiter;
+import com.QA.demo.model.User;
+import com.QA.demo.performance.OpenModelLoadGenerator.LoadReport;
+import com.QA.demo.performance.OpenModelLoadGenerator.OperationStats;
+import com.QA.demo.performance.UserWorkloads.IdPool;
+import com.QA.demo.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Open-model load well above what a deliberately slow database can serve, with the adaptive
+ * concurrency limiter on. The excess should be shed at once with 503, and the requests that are
+ * let in should stay fast instead of queueing behind each other.
+ *
+ * <p>{@code -Dload.limiter=false} runs the same load without the limiter for comparison; the
+ * assertions then only print.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:overloaddb;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        // The pool is the bottleneck, and every read has to reach it
+        "spring.datasource.hikari.maximum-pool-size=" + OpenModelOverloadTest.DATABASE_CONCURRENCY,
+        "user.cache.maximum-size=0",
+        "user.limiter.enabled=${load.limiter:true}",
+        // Sized for that pool instead of the default ten connections
+        "user.limiter.initial-limit=8",
+        "user.limiter.min-limit=2",
+        "user.limiter.window-samples=10"
+})
+@ActiveProfiles("test")
+@Import(OpenModelOverloadTest.SlowDatabase.class)
+public class OpenModelOverloadTest {
+
+    // Two connections at 20ms per query: about 100 queries per second
+    static final int DATABASE_CONCURRENCY = 2;
+    private static final long DATABASE_MILLIS = 20;
+    private static final double RATE = Double.parseDouble(System.getProperty("load.overload-rate", "300"));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.seconds", 5));
+    // Normal traffic before the overload, so the limiter knows the latency without queueing
+    private static final double NORMAL_RATE = 50;
+    private static final Duration NORMAL_DURATION = Duration.ofSeconds(4);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectProvider<AdaptiveConcurrencyLimiter> limiter;
+
+    private IdPool ids;
+
+    @BeforeEach
+    void setUp() {
+        ids = new IdPool();
+        long runId = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            ids.add(userService.createUser(new User(null, "Seed " + i, "overload" + runId + "-" + i + "@test.com", 30)).getId());
+        }
+    }
+
+    @Test
+    void testExcessLoadIsShedWhileAdmittedRequestsStayFast() throws Exception {
+        URI baseUri = URI.create("http://localhost:" + port);
+        // A cold JVM can be shed briefly here too; only the overload is asserted
+        System.out.println("=== NORMAL LOAD (" + NORMAL_RATE + " req/s) ===");
+        new OpenModelLoadGenerator()
+                .run(UserWorkloads.mix(baseUri, "read=80,write=20", ids), NORMAL_RATE, NORMAL_DURATION)
+                .print();
+        AdaptiveConcurrencyLimiter active = limiter.getIfAvailable();
+        double shedBefore = active == null ? 0 : rejected("read") + rejected("write");
+
+        System.out.println("=== OPEN MODEL OVERLOAD TEST (" + RATE + " req/s against ~"
+                + DATABASE_CONCURRENCY * 1000 / DATABASE_MILLIS + " queries/s) ===");
+        LoadReport report = new OpenModelLoadGenerator()
+                .run(UserWorkloads.mix(baseUri, "read=80,write=20", ids), RATE, DURATION);
+        report.print();
+
+        if (active == null) {
+            System.out.println("Limiter disabled, nothing to assert");
+            return;
+        }
+        System.out.println("Final limits: read " + active.getReads().getLimit() + ", write " + active.getWrites().getLimit()
+                + "; rejected: read " + rejected("read") + ", write " + rejected("write"));
+
+        assertEquals(report.getScheduled(), report.getCompleted(), "Every scheduled request should complete");
+        assertEquals(0, report.getFailures(), "Transport failures");
+        assertTrue(report.getShed() > 0, "Nothing was shed at " + RATE + " req/s");
+        assertEquals(report.getShed(), (long) (rejected("read") + rejected("write") - shedBefore));
+
+        OperationStats reads = report.getOperations().get("read");
+        long admittedP99 = reads.getCorrected().getValueAtPercentile(99);
+        long shedP99 = reads.getShedLatency().getValueAtPercentile(99);
+        // Without the limiter the queue grows for the whole run: at three times capacity p99 is past two thirds of it
+        assertTrue(admittedP99 < DURATION.toNanos() / 3,
+                "Admitted reads queued anyway: p99 " + admittedP99 / 1_000_000 + "ms");
+        assertTrue(shedP99 < admittedP99, "Shedding should be faster than serving");
+    }
+
+    private double rejected(String type) {
+        return meterRegistry.get("user.limiter.rejected").tag("type", type).counter().count();
+    }
+
+    // Stands in for a slow database: every repository call holds its pooled connection a while longer
+    @TestConfiguration
+    static class SlowDatabase {
+
+        @Bean
+        SlowDatabaseAspect slowDatabaseAspect() {
+            return new SlowDatabaseAspect();
+        }
+    }
+
+    @Aspect
+    static class SlowDatabaseAspect {
+
+        @Around("execution(* com.QA.demo.repository.UserRepository+.*(..))")
+        public Object slow(ProceedingJoinPoint joinPoint) throws Throwable {
+            Object result = joinPoint.proceed();
+            // Open-in-view keeps the request's connection until it completes, so this sleep holds it
+            Thread.sleep(DATABASE_MILLIS);
+            return result;
+        }
+    }
+}
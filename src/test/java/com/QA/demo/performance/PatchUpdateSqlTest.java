@@ -0,0 +1,81 @@
+package com.QA.demo.performance;
+
+import com.QA.demo.model.User;
+import com.QA.demo.service.UserService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:patchdb;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.QA.demo.performance.PatchUpdateSqlTest$RecordingInspector"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+public class PatchUpdateSqlTest {
+
+    @Autowired
+    private UserService userService;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = userService.createUser(new User(null, "Patch User", "patch-" + System.nanoTime() + "@test.com", 30)).getId();
+        RecordingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void testPatchSingleFieldIssuesSelectAndNarrowUpdate() {
+        User patched = userService.patchUser(userId, new User(null, null, null, 31), null).orElseThrow();
+
+        List<String> statements = userStatements();
+        statements.forEach(System.out::println);
+
+        assertEquals(31, patched.getAge());
+        assertEquals(1L, patched.getVersion());
+        assertEquals(2, statements.size(), "Expected one SELECT and one UPDATE");
+        String update = statements.get(1).toLowerCase(Locale.ROOT);
+        assertTrue(update.startsWith("update users set"));
+        assertTrue(update.contains("age="));
+        assertFalse(update.contains("name="), "Unchanged name was written: " + update);
+        assertFalse(update.contains("email="), "Unchanged email was written: " + update);
+    }
+
+    @Test
+    void testPatchWithUnchangedValuesIssuesNoUpdate() {
+        User current = userService.getUserById(userId).orElseThrow();
+        RecordingInspector.STATEMENTS.clear();
+
+        userService.patchUser(userId, new User(null, current.getName(), current.getEmail(), null), null);
+
+        assertEquals(1, userStatements().size(), "Expected the SELECT only, no existsByEmail and no UPDATE");
+    }
+
+    // Leaves out the change counter increment every write transaction makes (see UserTableVersion)
+    private static List<String> userStatements() {
+        return RecordingInspector.STATEMENTS.stream()
+                .filter(sql -> !sql.contains("user_change_counter"))
+                .toList();
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.QA.demo.performance;
+
+import com.QA.demo.model.User;
+import com.QA.demo.model.UserPage;
+import com.QA.demo.service.UserService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the search queries Hibernate actually generates through H2's EXPLAIN, to make sure they
+ * are answered by an index range scan rather than a table scan, and times a full walk of the pages.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:searchdb;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.QA.demo.performance.SearchIndexTest$LastSelectInspector"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+public class SearchIndexTest {
+
+    private static final int ROW_COUNT = Integer.getInteger("search.rows", 100_000);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("INSERT INTO users (id, name, email, age) " +
+                "SELECT X, CONCAT('Search User ', X), CONCAT('search', X, '@test.com'), 18 + MOD(X, 60) " +
+                "FROM SYSTEM_RANGE(1, ?)", ROW_COUNT);
+        jdbcTemplate.execute("ANALYZE");
+        System.out.println("Seeded " + ROW_COUNT + " users in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE users");
+    }
+
+    @Test
+    void testAgeRangeSearchUsesAgeIndex() {
+        UserPage first = userService.searchUsers(30, 31, null, null, 100);
+        String plan = explainLastSelect(30, 31, 30, 0L, 101);
+        System.out.println(plan);
+        assertTrue(plan.contains("IDX_USERS_AGE_ID"), "Expected the age index in:\n" + plan);
+
+        long expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE age BETWEEN 30 AND 31", Long.class);
+        assertEquals(expected, walk(first, cursor -> userService.searchUsers(30, 31, null, cursor, 100)));
+    }
+
+    @Test
+    void testNamePrefixSearchUsesNameIndex() {
+        UserPage first = userService.searchUsers(null, null, "Search User 1999", null, 5);
+        String plan = explainLastSelect("Search User 1999%", "Search User 1999", "Search User 1999", 0L,
+                0, Integer.MAX_VALUE, 6);
+        System.out.println(plan);
+        assertTrue(plan.contains("IDX_USERS_NAME_ID"), "Expected the name index in:\n" + plan);
+
+        long expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE name LIKE 'Search User 1999%'", Long.class);
+        assertEquals(expected, walk(first, cursor -> userService.searchUsers(null, null, "Search User 1999", cursor, 5)));
+    }
+
+    // Follows nextCursor to the end, checking the pages neither overlap nor skip rows
+    private long walk(UserPage page, java.util.function.Function<String, UserPage> next) {
+        Set<Long> seen = new HashSet<>();
+        long start = System.nanoTime();
+        int pages = 1;
+        while (true) {
+            for (User user : page.getUsers()) {
+                assertTrue(seen.add(user.getId()), "User " + user.getId() + " returned twice");
+            }
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            page = next.apply(page.getNextCursor());
+            pages++;
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Walked " + pages + " pages, " + seen.size() + " rows in " + millis + "ms ("
+                + String.format("%.2f", (double) millis / pages) + "ms per page)");
+        return seen.size();
+    }
+
+    // EXPLAIN needs values for the parameters; they are bound in the order Hibernate emitted them
+    private String explainLastSelect(Object... parameters) {
+        String sql = LastSelectInspector.lastSelect;
+        assertNotNull(sql, "No SELECT was captured");
+        assertEquals(parameters.length, sql.chars().filter(c -> c == '?').count(),
+                "Parameter count changed, update the test for: " + sql);
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters);
+        return String.join("\n", plan).toUpperCase(Locale.ROOT);
+    }
+
+    public static class LastSelectInspector implements StatementInspector {
+        static volatile String lastSelect;
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.toLowerCase(Locale.ROOT).startsWith("select") && sql.contains("users")) {
+                lastSelect = sql;
+            }
+            return sql;
+        }
+    }
+}
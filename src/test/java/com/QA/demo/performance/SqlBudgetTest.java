@@ -0,0 +1,152 @@
+package com.QA.demo.performance;
+
+import com.QA.demo.controller.SqlBudget;
+import com.QA.demo.controller.UserController;
+import com.QA.demo.model.User;
+import com.QA.demo.service.UserService;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calls every {@link UserController} handler once on its success path and compares the number of
+ * JDBC statements Hibernate prepared with the handler's {@link SqlBudget}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:sqlbudgetdb;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+public class SqlBudgetTest {
+
+    private static final AtomicInteger EMAILS = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        RestAssured.port = port;
+        RestAssured.basePath = "/api";
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Let the pooled sequence fetch its first block outside any measurement
+        userService.createUser(newUser());
+    }
+
+    @Test
+    void testEveryEndpointStaysWithinItsSqlBudget() {
+        Map<String, IntSupplier> scenarios = new LinkedHashMap<>();
+        scenarios.put("getAllUsers", () -> measure(() ->
+                given().queryParam("limit", 10).queryParam("includeTotal", true).get("/users").statusCode()));
+        scenarios.put("exportUsers", () -> measure(() -> given().get("/users/export").statusCode()));
+        scenarios.put("searchUsers", () -> measure(() -> given()
+                .queryParam("minAge", 20).queryParam("maxAge", 40).queryParam("limit", 10)
+                .get("/users/search").statusCode()));
+        scenarios.put("getCacheStats", () -> measure(() -> given().get("/users/cache-stats").statusCode()));
+        scenarios.put("getStats", () -> measure(() -> given().get("/users/stats").statusCode()));
+        scenarios.put("getUserById", () -> {
+            Long id = userService.createUser(newUser()).getId();
+            return measure(() -> given().header("If-None-Match", "\"99\"").get("/users/" + id).statusCode());
+        });
+        scenarios.put("createUser", () -> measure(() -> given()
+                .contentType(ContentType.JSON).body(newUser()).post("/users").statusCode()));
+        // Write-behind is off here, so this is always a 404
+        scenarios.put("getWriteStatus", () -> measure(() -> given().get("/users/writes/unknown").statusCode(), 404));
+        scenarios.put("createUsers", () -> {
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                users.add(newUser());
+            }
+            return measure(() -> given().contentType(ContentType.JSON).body(users).post("/users/batch").statusCode());
+        });
+        scenarios.put("updateUser", () -> {
+            User user = userService.createUser(newUser());
+            user.setAge(user.getAge() + 1);
+            return measure(() -> given().contentType(ContentType.JSON).header("If-Match", "\"0\"")
+                    .body(user).put("/users/" + user.getId()).statusCode());
+        });
+        scenarios.put("patchUser", () -> {
+            Long id = userService.createUser(newUser()).getId();
+            return measure(() -> given().contentType(ContentType.JSON)
+                    .body("{\"age\": 77}").patch("/users/" + id).statusCode());
+        });
+        scenarios.put("deleteUser", () -> {
+            Long id = userService.createUser(newUser()).getId();
+            return measure(() -> given().delete("/users/" + id).statusCode());
+        });
+
+        List<String> failures = new ArrayList<>();
+        for (Method method : UserController.class.getDeclaredMethods()) {
+            if (!AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class)) {
+                continue;
+            }
+            SqlBudget budget = method.getAnnotation(SqlBudget.class);
+            IntSupplier scenario = scenarios.get(method.getName());
+            if (budget == null) {
+                failures.add(method.getName() + " has no @SqlBudget");
+                continue;
+            }
+            if (scenario == null) {
+                failures.add(method.getName() + " has no scenario in SqlBudgetTest");
+                continue;
+            }
+            int statements = scenario.getAsInt();
+            System.out.println(method.getName() + ": " + statements + " statement(s), budget " + budget.value());
+            if (statements > budget.value()) {
+                failures.add(method.getName() + " issued " + statements + " statements, budget is " + budget.value());
+            }
+        }
+
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    private int measure(IntSupplier request) {
+        statistics.clear();
+        int status = request.getAsInt();
+        assertTrue(status >= 200 && status < 300, "Unexpected status " + status);
+        return (int) statistics.getPrepareStatementCount();
+    }
+
+    private int measure(IntSupplier request, int expectedStatus) {
+        statistics.clear();
+        assertEquals(expectedStatus, request.getAsInt());
+        return (int) statistics.getPrepareStatementCount();
+    }
+
+    private static User newUser() {
+        int n = EMAILS.incrementAndGet();
+        return new User(null, "Budget User " + n, "budget" + n + "@test.com", 20 + n % 50);
+    }
+}
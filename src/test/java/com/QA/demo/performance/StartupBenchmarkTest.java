@@ -0,0 +1,140 @@
+package com.QA.demo.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.QA.demo.performance.ApplicationProcess.TARGET;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts {@code DemoApplication} in a fresh JVM and measures the time from process start to the
+ * first successful {@code GET /api/users/{id}} (one POST creates the user first), and the
+ * process's resident set size at that point.
+ *
+ * <p>Always measures the plain class path start. After {@code mvn -Pfast-start package} it also
+ * measures the extracted jar with and without the AOT + AppCDS flags. Results are printed and
+ * written to {@code target/startup-benchmark.json}, so startup can be tracked like the JMH results.
+ *
+ * <p>Tagged {@code process-benchmark}, so it only runs with {@code -Pprocess-benchmarks}.
+ */
+@Tag("process-benchmark")
+public class StartupBenchmarkTest {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 3);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+    private static final Path FAST_START = TARGET.resolve("fast-start");
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    @Test
+    void testTimeToFirstSuccessfulGet() throws Exception {
+        String java = ApplicationProcess.java();
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("classpath", ApplicationProcess.classPathCommand());
+
+        Path jar = fastStartJar();
+        if (jar != null) {
+            modes.put("jar", List.of(java, "-jar", jar.toString()));
+            modes.put("jar-aot-cds", List.of(java, "-XX:SharedArchiveFile=" + FAST_START.resolve("application.jsa"),
+                    "-Dspring.aot.enabled=true", "-jar", jar.toString()));
+        } else {
+            System.out.println("No fast-start build in " + FAST_START + ", run mvn -Pfast-start package to include it");
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+            List<Long> times = new ArrayList<>();
+            for (int run = 1; run <= RUNS; run++) {
+                Map<String, Object> result = measure(mode.getKey(), run, mode.getValue());
+                results.add(result);
+                times.add((Long) result.get("timeToFirstGetMillis"));
+                System.out.println(mode.getKey() + " run " + run + ": first GET after " + result.get("timeToFirstGetMillis")
+                        + "ms, RSS " + result.get("rssKb") + " KB");
+            }
+            times.sort(null);
+            System.out.println(mode.getKey() + " median: " + times.get(times.size() / 2) + "ms");
+        }
+
+        new ObjectMapper().writerWithDefaultPrettyPrinter()
+                .writeValue(TARGET.resolve("startup-benchmark.json").toFile(), results);
+    }
+
+    private Map<String, Object> measure(String mode, int run, List<String> command) throws Exception {
+        try (ApplicationProcess application = ApplicationProcess.start("startup-" + mode + "-" + run, command)) {
+            String base = application.url("/api/users");
+            String id = null;
+            while (application.millisSinceStart() < STARTUP_TIMEOUT.toMillis()) {
+                assertTrue(application.isAlive(), mode + " exited early, see " + application.log());
+                if (id == null) {
+                    id = createUser(base);
+                } else if (getStatus(base + "/" + id) == 200) {
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("mode", mode);
+                    result.put("run", run);
+                    result.put("timeToFirstGetMillis", application.millisSinceStart());
+                    result.put("rssKb", application.residentSetKb());
+                    return result;
+                }
+                if (id == null) {
+                    Thread.sleep(10);
+                }
+            }
+            fail(mode + " did not serve GET /api/users/{id} within " + STARTUP_TIMEOUT + ", see " + application.log());
+            return null;
+        }
+    }
+
+    // The new user's id, or null while the server is not accepting requests yet
+    private String createUser(String base) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"name\": \"Startup User\", \"email\": \"startup@test.com\", \"age\": 30}"))
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                return null;
+            }
+            Matcher id = Pattern.compile("\"id\"\\s*:\\s*(\\d+)").matcher(response.body());
+            return id.find() ? id.group(1) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private int getStatus(String url) throws InterruptedException {
+        try {
+            return client.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding())
+                    .statusCode();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static Path fastStartJar() throws IOException {
+        if (!Files.exists(FAST_START.resolve("application.jsa"))) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(FAST_START)) {
+            return files.filter(file -> file.toString().endsWith(".jar")).findFirst().orElse(null);
+        }
+    }
+}
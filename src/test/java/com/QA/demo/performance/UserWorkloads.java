@@ -0,0 +1,212 @@
+package com.QA.demo.performance;
+
+import com.QA.demo.performance.OpenModelLoadGenerator.PlannedRequest;
+import com.QA.demo.performance.OpenModelLoadGenerator.Workload;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Workloads for {@link OpenModelLoadGenerator} against the user API: a weighted read/write/update/delete
+ * mix, or a scenario replayed from an NDJSON file.
+ */
+public final class UserWorkloads {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private UserWorkloads() {
+    }
+
+    /**
+     * Weighted mix of {@code read} (GET by id), {@code write} (POST), {@code update} (PATCH) and
+     * {@code delete}, e.g. {@code "read=70,write=20,update=5,delete=5"}. Reads, updates and deletes
+     * target ids from {@code ids}; when it is empty they fall back to a write.
+     */
+    public static Workload mix(URI baseUri, String weights, IdPool ids) {
+        Map<String, Integer> mix = parseWeights(weights);
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long runId = System.nanoTime();
+        Consumer<HttpResponse<String>> collectId = ids::addFromResponse;
+
+        return sequence -> {
+            String operation = pick(mix, total);
+            Long id = operation.equals("write") ? null
+                    : operation.equals("delete") ? ids.take() : ids.random();
+            if (id == null) {
+                operation = "write";
+            }
+            switch (operation) {
+                case "read":
+                    return new PlannedRequest(operation, request(baseUri, "/api/users/" + id).GET().build());
+                case "update":
+                    return new PlannedRequest(operation, request(baseUri, "/api/users/" + id)
+                            .header("Content-Type", "application/json")
+                            .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                                    "{\"age\": " + (18 + sequence % 60) + "}"))
+                            .build());
+                case "delete":
+                    return new PlannedRequest(operation, request(baseUri, "/api/users/" + id).DELETE().build());
+                default:
+                    String body = String.format("{\"name\": \"Open Model %d\", \"email\": \"open%d-%d@test.com\", \"age\": %d}",
+                            sequence, runId, sequence, 18 + sequence % 60);
+                    return new PlannedRequest("write", request(baseUri, "/api/users")
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build(), collectId);
+            }
+        };
+    }
+
+    /**
+     * Replays the requests of an NDJSON file in order, wrapping around at the end. Each line is
+     * {@code {"name": "...", "method": "POST", "path": "/api/users", "body": {...}}}; {@code name}
+     * is the operation the latency is reported under and {@code body} is optional. In the path
+     * and body, {@code ${seq}} becomes the request's sequence number (for unique emails) and
+     * {@code ${id}} the id of a user created earlier in the run.
+     */
+    public static Workload ndjson(URI baseUri, Path file, IdPool ids) throws IOException {
+        List<ScenarioLine> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = OBJECT_MAPPER.readTree(line);
+            JsonNode body = node.get("body");
+            lines.add(new ScenarioLine(node.path("name").asText(node.path("method").asText()),
+                    node.path("method").asText("GET"), node.path("path").asText(),
+                    body == null || body.isNull() ? null : OBJECT_MAPPER.writeValueAsString(body)));
+        }
+        if (lines.isEmpty()) {
+            throw new IOException("Scenario " + file + " has no requests");
+        }
+        long runId = System.nanoTime();
+        Consumer<HttpResponse<String>> collectId = ids::addFromResponse;
+
+        return sequence -> {
+            ScenarioLine line = lines.get((int) (sequence % lines.size()));
+            Long id = ids.random();
+            String path = substitute(line.path, runId, sequence, id);
+            HttpRequest.BodyPublisher body = line.body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofString(substitute(line.body, runId, sequence, id));
+            HttpRequest request = request(baseUri, path)
+                    .header("Content-Type", "application/json")
+                    .method(line.method, body)
+                    .build();
+            return new PlannedRequest(line.name, request, collectId);
+        };
+    }
+
+    static Map<String, Integer> parseWeights(String weights) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : weights.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight but got '" + entry + "'");
+            }
+            String operation = parts[0].trim();
+            if (!List.of("read", "write", "update", "delete").contains(operation)) {
+                throw new IllegalArgumentException("Unknown operation '" + operation + "'");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(operation, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operations: " + weights);
+        }
+        return mix;
+    }
+
+    private static String pick(Map<String, Integer> mix, int total) {
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private static HttpRequest.Builder request(URI baseUri, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    // ${seq} also carries the run id so replays against a database that outlived an earlier run stay unique
+    private static String substitute(String template, long runId, long sequence, Long id) {
+        return template.replace("${seq}", runId + "-" + sequence)
+                .replace("${id}", String.valueOf(id == null ? 0 : id));
+    }
+
+    private static final class ScenarioLine {
+        final String name;
+        final String method;
+        final String path;
+        final String body;
+
+        ScenarioLine(String name, String method, String path, String body) {
+            this.name = name;
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+    }
+
+    /** Ids of users known to exist, fed by the responses of successful creates. */
+    public static final class IdPool {
+        private final List<Long> ids = new ArrayList<>();
+
+        public synchronized void add(Long id) {
+            ids.add(id);
+        }
+
+        public synchronized Long random() {
+            return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        // Removes the id so it is deleted at most once
+        public synchronized Long take() {
+            if (ids.isEmpty()) {
+                return null;
+            }
+            int index = ThreadLocalRandom.current().nextInt(ids.size());
+            Long last = ids.remove(ids.size() - 1);
+            return index == ids.size() ? last : ids.set(index, last);
+        }
+
+        public synchronized int size() {
+            return ids.size();
+        }
+
+        void addFromResponse(HttpResponse<String> response) {
+            if (response.statusCode() != 201) {
+                return;
+            }
+            try {
+                JsonNode id = OBJECT_MAPPER.readTree(response.body()).get("id");
+                if (id != null && id.canConvertToLong()) {
+                    add(id.asLong());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
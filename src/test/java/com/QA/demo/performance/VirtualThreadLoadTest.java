@@ -0,0 +1,11 @@
+package com.QA.demo.performance;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Same scenarios as LoadTest, served by virtual threads; compare the two result blocks in the output
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:vthreaddb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("virtual-threads")
+public class VirtualThreadLoadTest extends LoadTest {
+}
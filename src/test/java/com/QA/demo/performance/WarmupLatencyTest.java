@@ -0,0 +1,133 @@
+package com.QA.demo.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.QA.demo.performance.ApplicationProcess.TARGET;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the p99 latency of the first N requests after the application reports ready, started
+ * once without and once with the JIT warm-up ({@code user.warmup.enabled}). Each start is a fresh
+ * JVM, so the numbers are what a newly started instance shows its first clients. Results are
+ * written to {@code target/warmup-benchmark.json}.
+ *
+ * <p>Tagged {@code process-benchmark}, so it only runs with {@code -Pprocess-benchmarks}.
+ */
+@Tag("process-benchmark")
+public class WarmupLatencyTest {
+
+    private static final int REQUESTS = Integer.getInteger("warmup.requests", 200);
+    private static final int ITERATIONS = Integer.getInteger("warmup.iterations", 500);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(180);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    @Test
+    void testWarmupLowersFirstRequestsP99() throws Exception {
+        Map<String, Object> cold = measure("cold", "--user.warmup.enabled=false");
+        Map<String, Object> warm = measure("warm", "--user.warmup.enabled=true",
+                "--user.warmup.iterations=" + ITERATIONS);
+
+        double coldP99 = (Double) cold.get("p99Millis");
+        double warmP99 = (Double) warm.get("p99Millis");
+        System.out.println("=== WARM-UP LATENCY TEST ===");
+        System.out.println("p99 of the first " + REQUESTS + " requests: " + String.format("%.2f", coldP99)
+                + "ms cold, " + String.format("%.2f", warmP99) + "ms after warm-up ("
+                + String.format("%.1f", coldP99 / warmP99) + "x)");
+        System.out.println("Time to ready: " + cold.get("readyMillis") + "ms cold, " + warm.get("readyMillis") + "ms with warm-up");
+
+        new ObjectMapper().writerWithDefaultPrettyPrinter()
+                .writeValue(TARGET.resolve("warmup-benchmark.json").toFile(), List.of(cold, warm));
+
+        assertTrue((Boolean) warm.get("readinessHeldBack"), "Readiness was reported before the warm-up finished");
+        assertTrue(warmP99 < coldP99, "Warm-up did not lower p99: " + warmP99 + "ms vs " + coldP99 + "ms cold");
+    }
+
+    private Map<String, Object> measure(String mode, String... arguments) throws Exception {
+        try (ApplicationProcess application = ApplicationProcess.start("warmup-" + mode,
+                ApplicationProcess.classPathCommand(), arguments)) {
+            // Tomcat answers while the runners are still going; only readiness says when traffic is welcome
+            boolean readinessHeldBack = false;
+            while (true) {
+                assertTrue(application.isAlive(), mode + " exited early, see " + application.log());
+                assertTrue(application.millisSinceStart() < STARTUP_TIMEOUT.toMillis(),
+                        mode + " was not ready within " + STARTUP_TIMEOUT + ", see " + application.log());
+                int status = status(application.url("/actuator/health/readiness"));
+                if (status == 200) {
+                    break;
+                }
+                readinessHeldBack |= status == 503;
+                Thread.sleep(10);
+            }
+            long readyMillis = application.millisSinceStart();
+
+            // The warm-up removes every scratch user it created
+            HttpResponse<String> users = send(HttpRequest.newBuilder(URI.create(application.url("/api/users"))).GET());
+            assertEquals("[]", users.body());
+
+            List<Long> latencies = new ArrayList<>();
+            String base = application.url("/api/users");
+            for (int i = 0; latencies.size() < REQUESTS; i++) {
+                String body = "{\"name\": \"Latency User\", \"email\": \"latency" + i + "@test.com\", \"age\": 30}";
+                HttpResponse<String> created = timed(latencies, HttpRequest.newBuilder(URI.create(base))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body)));
+                assertEquals(201, created.statusCode());
+                String user = base + "/" + new ObjectMapper().readTree(created.body()).get("id").asLong();
+                assertEquals(200, timed(latencies, HttpRequest.newBuilder(URI.create(user)).GET()).statusCode());
+                assertEquals(200, timed(latencies, HttpRequest.newBuilder(URI.create(user))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(body.replace("30", "31")))).statusCode());
+                assertEquals(200, timed(latencies, HttpRequest.newBuilder(URI.create(user)).DELETE()).statusCode());
+            }
+
+            if (mode.equals("warm")) {
+                assertTrue(application.output().contains("Warm-up ran"), "No warm-up report in " + application.log());
+            }
+
+            latencies.sort(null);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("mode", mode);
+            result.put("readyMillis", readyMillis);
+            result.put("readinessHeldBack", readinessHeldBack);
+            result.put("requests", latencies.size());
+            result.put("p50Millis", latencies.get(latencies.size() / 2) / 1_000_000.0);
+            result.put("p99Millis", latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1) / 1_000_000.0);
+            result.put("maxMillis", latencies.get(latencies.size() - 1) / 1_000_000.0);
+            return result;
+        }
+    }
+
+    private HttpResponse<String> timed(List<Long> latencies, HttpRequest.Builder request) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(request);
+        latencies.add(System.nanoTime() - start);
+        return response;
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private int status(String url) throws InterruptedException {
+        try {
+            return client.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding())
+                    .statusCode();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.QA.demo.reactive;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The web application type must be given here; the test context is prepared before profile files are read
+@SpringBootTest(classes = ReactiveUserApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+public class ReactiveUserApiTest {
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        RestAssured.port = port;
+        RestAssured.basePath = "/api";
+    }
+
+    @Test
+    void testCrudRoundTrip() {
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Reactive User", "email": "reactive@example.com", "age": 31}
+                    """)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .body("id", notNullValue())
+                .body("email", equalTo("reactive@example.com"))
+                .extract().path("id");
+
+        given()
+                .when()
+                .get("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("name", equalTo("Reactive User"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Reactive User Updated", "email": "reactive@example.com", "age": 32}
+                    """)
+                .when()
+                .put("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("age", equalTo(32));
+
+        given()
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("email", hasItem("reactive@example.com"));
+
+        given()
+                .when()
+                .delete("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        given()
+                .when()
+                .get("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    void testValidationAndDuplicateEmail() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "", "email": "reactive-invalid@example.com", "age": 20}
+                    """)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Name cannot be empty"));
+
+        String userJson = """
+            {"name": "Reactive Dup", "email": "reactive-dup@example.com", "age": 20}
+            """;
+        given().contentType(ContentType.JSON).body(userJson).when().post("/users")
+                .then().statusCode(HttpStatus.CREATED.value());
+        given().contentType(ContentType.JSON).body(userJson).when().post("/users")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Email already exists"));
+    }
+
+    @Test
+    void testUpdateValidationDuplicateEmailAndMissingUser() {
+        Integer id = given().contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Reactive Put", "email": "reactive-put@example.com", "age": 20}
+                    """)
+                .when().post("/users")
+                .then().statusCode(HttpStatus.CREATED.value())
+                .extract().path("id");
+        given().contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Reactive Put Other", "email": "reactive-put-other@example.com", "age": 20}
+                    """)
+                .when().post("/users")
+                .then().statusCode(HttpStatus.CREATED.value());
+
+        given().contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Reactive Put", "email": "reactive-put@example.com", "age": -1}
+                    """)
+                .when().put("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Age must be positive"));
+
+        given().contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Reactive Put", "email": "reactive-put-other@example.com", "age": 20}
+                    """)
+                .when().put("/users/" + id)
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("message", equalTo("Email already exists"));
+
+        given().contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Reactive Put", "email": "reactive-put@example.com", "age": 20}
+                    """)
+                .when().put("/users/999999")
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    void testManyConcurrentRequestsOnFewEventLoopThreads() throws Exception {
+        int requests = 200;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(50);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            String email = "reactive-load-" + i + "@example.com";
+            results.add(executor.submit(() -> {
+                start.await();
+                return given()
+                        .contentType(ContentType.JSON)
+                        .body("{\"name\": \"Load\", \"email\": \"" + email + "\", \"age\": 30}")
+                        .when()
+                        .post("/users")
+                        .statusCode();
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        for (Future<Integer> result : results) {
+            if (result.get() == HttpStatus.CREATED.value()) {
+                created++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(requests, created);
+    }
+}
@@ -0,0 +1,115 @@
+package com.QA.demo.repository;
+
+import com.QA.demo.model.User;
+import com.QA.demo.repository.UserRepositoryCustom.PreviousRow;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The same checks against H2's OLD TABLE statement and against the portable locking-read fallback
+public class SetBasedWriteTest {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    abstract static class SetBasedWrites {
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private TransactionTemplate transaction;
+
+        @Test
+        void update_ShouldReturnThePreviousRowAndBumpTheVersion() {
+            User user = userRepository.saveAndFlush(newUser(30));
+
+            PreviousRow previous = transaction.execute(status ->
+                    userRepository.updateUserById(user.getId(), "Renamed", "renamed-" + user.getEmail(), 31)).orElseThrow();
+
+            assertEquals(new PreviousRow(30, user.getEmail(), 0L), previous);
+            User written = userRepository.findById(user.getId()).orElseThrow();
+            assertEquals("Renamed", written.getName());
+            assertEquals(31, written.getAge());
+            assertEquals(1L, written.getVersion());
+        }
+
+        @Test
+        void update_ShouldMatchNothing_WhenVersionOrIdDiffers() {
+            User user = userRepository.saveAndFlush(newUser(30));
+
+            assertTrue(transaction.execute(status ->
+                    userRepository.updateUserByIdAndVersionIn(user.getId(), Set.of(5L, 6L), "Renamed", user.getEmail(), 31)).isEmpty());
+            assertTrue(transaction.execute(status ->
+                    userRepository.updateUserById(user.getId() + 1000, "Renamed", user.getEmail(), 31)).isEmpty());
+            assertEquals(0L, userRepository.findById(user.getId()).orElseThrow().getVersion());
+        }
+
+        @Test
+        void update_ShouldSurfaceTheUniqueConstraint() {
+            User first = userRepository.saveAndFlush(newUser(30));
+            User second = userRepository.saveAndFlush(newUser(40));
+
+            assertThrows(DataIntegrityViolationException.class, () -> transaction.executeWithoutResult(status ->
+                    userRepository.updateUserById(second.getId(), "Taken", first.getEmail(), 40)));
+        }
+
+        @Test
+        void delete_ShouldReturnThePreviousRow_OnlyWhenTheVersionMatches() {
+            User user = userRepository.saveAndFlush(newUser(50));
+
+            assertTrue(transaction.execute(status ->
+                    userRepository.deleteUserByIdAndVersionIn(user.getId(), Set.of(1L))).isEmpty());
+            assertTrue(transaction.execute(status ->
+                    userRepository.deleteUserByIdAndVersionIn(user.getId(), Set.of())).isEmpty());
+            Optional<PreviousRow> deleted = transaction.execute(status ->
+                    userRepository.deleteUserByIdAndVersionIn(user.getId(), Set.of(3L, 0L)));
+
+            assertEquals(Optional.of(new PreviousRow(50, user.getEmail(), 0L)), deleted);
+            assertFalse(userRepository.existsById(user.getId()));
+        }
+
+        @Test
+        void writes_ShouldFlushPendingChangesAndNotLeaveAStaleEntityBehind() {
+            User user = userRepository.saveAndFlush(newUser(30));
+
+            transaction.executeWithoutResult(status -> {
+                User managed = userRepository.findById(user.getId()).orElseThrow();
+                managed.setAge(35);
+                // The pending change is flushed first, so the statement sees it as the previous row
+                assertEquals(35, userRepository.updateUserById(user.getId(), "Renamed", user.getEmail(), 36)
+                        .orElseThrow().age());
+                assertEquals(36, userRepository.findById(user.getId()).orElseThrow().getAge());
+            });
+            assertEquals(2L, userRepository.findById(user.getId()).orElseThrow().getVersion());
+        }
+    }
+
+    @Nested
+    @SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:deltatablewritedb;DB_CLOSE_DELAY=-1")
+    @ActiveProfiles("test")
+    class DeltaTable extends SetBasedWrites {
+    }
+
+    @Nested
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:lockingreadwritedb;DB_CLOSE_DELAY=-1",
+            "user.repository.delta-tables=false"
+    })
+    @ActiveProfiles("test")
+    class LockingRead extends SetBasedWrites {
+    }
+
+    private static User newUser(int age) {
+        return new User(null, "Set Based", "setbased" + SEQUENCE.incrementAndGet() + "@test.com", age);
+    }
+}
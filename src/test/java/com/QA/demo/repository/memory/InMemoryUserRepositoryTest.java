@@ -0,0 +1,136 @@
+package com.QA.demo.repository.memory;
+
+import com.QA.demo.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryUserRepositoryTest {
+
+    private final InMemoryUserRepository repository = new InMemoryUserRepository();
+    private final TransactionTemplate transaction = new TransactionTemplate(new InMemoryTransactionManager());
+
+    @Test
+    void concurrentCreates_ShouldLetExactlyOneOwnAnEmail() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int n = i;
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    repository.saveAndFlush(new User(null, "Racer " + n, "race@example.com", 30));
+                    return true;
+                } catch (DuplicateKeyException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int created = 0;
+        for (Future<Boolean> result : results) {
+            created += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertEquals(1, created);
+        assertEquals(1, repository.count());
+        assertTrue(repository.findByEmail("race@example.com").isPresent());
+    }
+
+    @Test
+    void rollback_ShouldUndoEveryWriteOfTheTransaction() {
+        User kept = repository.saveAndFlush(new User(null, "Kept", "kept@example.com", 40));
+        User doomed = repository.saveAndFlush(new User(null, "Doomed", "doomed@example.com", 50));
+
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            repository.saveAndFlush(new User(null, "Inserted", "inserted@example.com", 20));
+            repository.updateUserById(kept.getId(), "Renamed", "renamed@example.com", 41);
+            repository.deleteUserById(doomed.getId());
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(2, repository.count());
+        assertTrue(repository.findByEmail("inserted@example.com").isEmpty());
+        assertTrue(repository.findByEmail("renamed@example.com").isEmpty());
+        User restored = repository.findByEmail("kept@example.com").orElseThrow();
+        assertEquals("Kept", restored.getName());
+        assertEquals(0L, restored.getVersion());
+        assertEquals(50, repository.findById(doomed.getId()).orElseThrow().getAge());
+    }
+
+    @Test
+    void flush_ShouldWriteDirtyEntitiesWithAVersionCheck() {
+        Long id = repository.saveAndFlush(new User(null, "Dirty", "dirty@example.com", 30)).getId();
+
+        // Dirty checking: no explicit save, the change is written at commit
+        transaction.executeWithoutResult(status -> repository.findById(id).orElseThrow().setAge(31));
+        User committed = repository.findById(id).orElseThrow();
+        assertEquals(31, committed.getAge());
+        assertEquals(1L, committed.getVersion());
+
+        // A write that lands between the load and the flush makes the flush fail
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> transaction.executeWithoutResult(status -> {
+            User loaded = repository.findById(id).orElseThrow();
+            Thread otherWriter = new Thread(() -> repository.updateUserById(id, "Other Writer", "dirty@example.com", 60));
+            otherWriter.start();
+            try {
+                otherWriter.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            loaded.setAge(32);
+            repository.flush();
+        }));
+        assertEquals(60, repository.findById(id).orElseThrow().getAge());
+    }
+
+    @Test
+    void searchByNamePrefix_ShouldMatchTheEscapedPrefixLiterally() {
+        repository.saveAndFlush(new User(null, "50% off", "a@example.com", 20));
+        repository.saveAndFlush(new User(null, "50_ off", "b@example.com", 21));
+        repository.saveAndFlush(new User(null, "500 off", "c@example.com", 22));
+
+        // The same escaped LIKE pattern UserService builds for the prefix "50%"
+        List<User> found = repository.searchByNamePrefix("50\\%%", "50%", 0L, 0, 100, Limit.of(10));
+
+        assertEquals(List.of("50% off"), found.stream().map(User::getName).toList());
+    }
+
+    @Test
+    void idOrderedReads_ShouldSeeEveryRowOnce_WhileRowsAreUpdated() throws Exception {
+        int users = 100;
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            ids.add(repository.saveAndFlush(new User(null, "Reader " + i, "reader" + i + "@example.com", 20)).getId());
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> {
+            for (int round = 0; round < 50; round++) {
+                for (int i = 0; i < users; i++) {
+                    repository.updateUserById(ids.get(i), "Reader " + round, "reader" + i + "@example.com", 21 + round);
+                }
+            }
+        });
+        while (!writer.isDone()) {
+            List<Long> seen = repository.findAll().stream().map(User::getId).toList();
+            assertEquals(ids, seen);
+        }
+        writer.get();
+        executor.shutdown();
+    }
+}
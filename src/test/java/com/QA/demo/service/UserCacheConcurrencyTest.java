@@ -0,0 +1,90 @@
+package com.QA.demo.service;
+
+import com.QA.demo.model.User;
+import com.QA.demo.model.UserCacheStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cachedb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+public class UserCacheConcurrencyTest {
+
+    private static final int READER_THREADS = 4;
+    private static final int WRITES = 200;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void cachedLookups_ShouldNeverReturnDataOlderThanTheLastCommittedWrite() throws Exception {
+        User user = userService.createUser(new User(null, "Cache User", "cache-0@example.com", 1));
+        Long id = user.getId();
+
+        // Highest age whose update has returned, i.e. committed
+        AtomicInteger committedAge = new AtomicInteger(1);
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicInteger staleReads = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+
+        ExecutorService readers = Executors.newFixedThreadPool(READER_THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < READER_THREADS; i++) {
+            futures.add(readers.submit(() -> {
+                while (!done.get()) {
+                    int floor = committedAge.get();
+                    Optional<User> read = userService.getUserById(id);
+                    reads.incrementAndGet();
+                    if (read.isEmpty() || read.get().getAge() < floor) {
+                        staleReads.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        String email = "cache-0@example.com";
+        for (int age = 2; age <= WRITES; age++) {
+            // Change the email every tenth write to exercise the old-email invalidation
+            String newEmail = age % 10 == 0 ? "cache-" + age + "@example.com" : email;
+            userService.updateUser(id, new User(null, "Cache User", newEmail, age));
+            committedAge.set(age);
+
+            assertEquals(age, userService.getUserById(id).orElseThrow().getAge());
+            assertEquals(age, userService.getUserByEmail(newEmail).orElseThrow().getAge());
+            if (!newEmail.equals(email)) {
+                assertTrue(userService.getUserByEmail(email).isEmpty(), "Old email still resolves after change");
+                email = newEmail;
+            }
+        }
+
+        done.set(true);
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        readers.shutdown();
+
+        userService.deleteUser(id);
+        assertTrue(userService.getUserById(id).isEmpty());
+        assertTrue(userService.getUserByEmail(email).isEmpty());
+
+        UserCacheStats stats = userService.getCacheStats();
+        System.out.println("Concurrent reads: " + reads.get() + ", stale reads: " + staleReads.get());
+        System.out.println("Cache hits: " + stats.getHits() + ", misses: " + stats.getMisses()
+                + ", evictions: " + stats.getEvictions());
+
+        assertEquals(0, staleReads.get());
+        assertTrue(stats.getHits() > 0);
+    }
+}
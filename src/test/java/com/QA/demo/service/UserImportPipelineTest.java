@@ -0,0 +1,161 @@
+package com.QA.demo.service;
+
+import com.QA.demo.model.ImportCheckpoint;
+import com.QA.demo.model.ImportReport;
+import com.QA.demo.model.User;
+import com.QA.demo.repository.ImportCheckpointRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importdb;DB_CLOSE_DELAY=-1",
+        "user.import.chunk-size=2"
+})
+@ActiveProfiles("test")
+public class UserImportPipelineTest {
+
+    @Autowired
+    private UserImportPipeline importPipeline;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ImportCheckpointRepository checkpointRepository;
+
+    // Stands in for write-behind mode; no email is reserved unless a test says so
+    @MockBean
+    private UserWriteBehind writeBehind;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void importFile_ShouldImportValidLinesAndCountRejects() throws Exception {
+        User existing = new User(null, "Already There", "import-existing@example.com", 40);
+        userService.createUser(existing);
+
+        Path file = tempDir.resolve("users.ndjson");
+        Files.write(file, List.of(
+                "{\"name\": \"Import One\", \"email\": \"import-one@example.com\", \"age\": 21}",
+                "{\"name\": \"Import Two\", \"email\": \"import-two@example.com\", \"age\": 22}",
+                "not json",
+                "{\"name\": \"\", \"email\": \"import-noname@example.com\", \"age\": 23}",
+                "{\"name\": \"Import Dup\", \"email\": \"import-one@example.com\", \"age\": 24}",
+                "",
+                "{\"name\": \"Import Existing\", \"email\": \"import-existing@example.com\", \"age\": 25}",
+                "{\"name\": \"Import Three\", \"email\": \"import-three@example.com\", \"age\": 26}"
+        ));
+
+        ImportReport report = importPipeline.importFile(file);
+
+        assertEquals(8, report.getLinesRead());
+        assertEquals(3, report.getImported());
+        assertEquals(2, report.getInvalid());
+        assertEquals(2, report.getDuplicates());
+        assertTrue(userService.getUserByEmail("import-three@example.com").isPresent());
+
+        ImportCheckpoint checkpoint = checkpointRepository.findById(report.getSource()).orElseThrow();
+        assertTrue(checkpoint.getCompleted());
+        assertEquals(8L, checkpoint.getLastLine());
+    }
+
+    @Test
+    void importFile_ShouldResumeAfterLastCommittedChunk() throws Exception {
+        Path file = tempDir.resolve("resume.ndjson");
+        Files.write(file, List.of(
+                "{\"name\": \"Resume One\", \"email\": \"resume-one@example.com\", \"age\": 31}",
+                "{\"name\": \"Resume Two\", \"email\": \"resume-two@example.com\", \"age\": 32}",
+                "{\"name\": \"Resume Three\", \"email\": \"resume-three@example.com\", \"age\": 33}",
+                "{\"name\": \"Resume Four\", \"email\": \"resume-four@example.com\", \"age\": 34}"
+        ));
+        // Simulate a crash after the first chunk (lines 1-2) was committed
+        String source = file.toAbsolutePath().normalize().toString();
+        checkpointRepository.save(new ImportCheckpoint(source, 2L, 2L, false));
+
+        ImportReport report = importPipeline.importFile(file);
+
+        assertEquals(2, report.getResumedFromLine());
+        assertEquals(2, report.getLinesRead());
+        assertEquals(2, report.getImported());
+        assertFalse(userService.getUserByEmail("resume-one@example.com").isPresent());
+        assertTrue(userService.getUserByEmail("resume-four@example.com").isPresent());
+        // The checkpoint counts the rows of the interrupted run too
+        assertEquals(4L, checkpointRepository.findById(source).orElseThrow().getImportedCount());
+    }
+
+    @Test
+    void importFile_ShouldSkipEmailsHeldByQueuedWriteBehindUsers() throws Exception {
+        when(writeBehind.isReserved("import-queued@example.com")).thenReturn(true);
+        Path file = tempDir.resolve("reserved.ndjson");
+        Files.write(file, List.of(
+                "{\"name\": \"Import Queued\", \"email\": \"import-queued@example.com\", \"age\": 41}",
+                "{\"name\": \"Import Free\", \"email\": \"import-free@example.com\", \"age\": 42}"
+        ));
+
+        ImportReport report = importPipeline.importFile(file);
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getDuplicates());
+        assertFalse(userService.getUserByEmail("import-queued@example.com").isPresent());
+        assertTrue(userService.getUserByEmail("import-free@example.com").isPresent());
+    }
+
+    @Test
+    void importFile_ShouldFailInsteadOfHanging_WhenTheValidatorStageDies() throws Exception {
+        // Every parsed user breaks the validator with an unexpected exception
+        ObjectMapper brokenUsers = new ObjectMapper().registerModule(new SimpleModule()
+                .addDeserializer(User.class, new JsonDeserializer<>() {
+                    @Override
+                    public User deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                        parser.skipChildren();
+                        return new User() {
+                            @Override
+                            public String getName() {
+                                throw new IllegalStateException("validator bug");
+                            }
+                        };
+                    }
+                }));
+        UserImportPipeline pipeline = new UserImportPipeline();
+        for (String field : List.of("userRepository", "checkpointRepository", "transactionManager", "eventPublisher",
+                "writeBehind")) {
+            ReflectionTestUtils.setField(pipeline, field, ReflectionTestUtils.getField(importPipeline, field));
+        }
+        ReflectionTestUtils.setField(pipeline, "objectMapper", brokenUsers);
+        ReflectionTestUtils.setField(pipeline, "chunkSize", 2);
+        // The parser fills this at once and then blocks in put()
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 1);
+
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lines.add("{\"name\": \"Broken " + i + "\", \"email\": \"broken" + i + "@example.com\", \"age\": 30}");
+        }
+        Path file = tempDir.resolve("broken.ndjson");
+        Files.write(file, lines);
+
+        RuntimeException failure = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(RuntimeException.class, () -> pipeline.importFile(file)));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+}
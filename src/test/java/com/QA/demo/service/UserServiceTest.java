@@ -1,15 +1,26 @@
 package com.QA.demo.service;
 
 import com.QA.demo.model.User;
+import com.QA.demo.model.UserBatchResult;
 import com.QA.demo.repository.UserRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -21,6 +32,15 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<UserWriteBehind> writeBehind;
+
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(1));
+
     @InjectMocks
     private UserService userService;
 
@@ -36,66 +56,93 @@ public class UserServiceTest {
     @Test
     void createUser_ShouldReturnSavedUser_WhenEmailIsUnique() {
         // Arrange
-        when(userRepository.existsByEmail(testUser.getEmail())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         // Act
         User result = userService.createUser(testUser);
 
-        // Assert - Fix the expectation to match actual implementation
+        // Assert - creation is a single INSERT, no existence probe
         assertNotNull(result);
         assertEquals(testUser.getName(), result.getName());
         assertEquals(testUser.getEmail(), result.getEmail());
-        verify(userRepository, times(1)).existsByEmail(testUser.getEmail());
-        verify(userRepository, times(1)).save(testUser);
-        // Remove the findByEmail verification since it's not used in createUser
+        verify(userRepository, never()).existsByEmail(any());
+        verify(userRepository, times(1)).saveAndFlush(testUser);
     }
 
     //red test
 
     @Test
     void createUser_ShouldThrowException_WhenEmailAlreadyExists() {
-        // Arrange
-        when(userRepository.existsByEmail(testUser.getEmail())).thenReturn(true);
+        // Arrange - the unique constraint on users.email rejects the INSERT
+        ConstraintViolationException violation = new ConstraintViolationException("Unique index or primary key violation",
+                new SQLException("Unique index or primary key violation", "23505"), "insert into users",
+                ConstraintViolationException.ConstraintKind.UNIQUE, "users_email_key");
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", violation));
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+        DuplicateEmailException exception = assertThrows(DuplicateEmailException.class, () -> {
             userService.createUser(testUser);
         });
 
         assertEquals("Email already exists", exception.getMessage());
-        verify(userRepository, times(1)).existsByEmail(testUser.getEmail());
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(any());
+        verify(userRepository, times(1)).saveAndFlush(testUser);
+    }
+
+    @Test
+    void createUser_ShouldRejectInvalidUserWithoutStackTrace() {
+        User invalid = new User(null, "John Doe", "not-an-email", 30);
+
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> userService.createUser(invalid));
+
+        // Expected rejections skip fillInStackTrace, which is most of their cost
+        assertEquals("Invalid email format", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
+        verify(userRepository, never()).saveAndFlush(any());
     }
 
     @Test
     void deleteUser_ShouldDeleteUser_WhenUserExists() {
         // Arrange
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        doNothing().when(userRepository).delete(testUser);
+        when(userRepository.deleteUserById(1L)).thenReturn(Optional.of(new UserRepository.PreviousRow(30, "old@example.com", 0L)));
 
         // Act
         userService.deleteUser(1L);
 
-        // Assert - Fix to match actual implementation (delete() not deleteById())
-        verify(userRepository, times(1)).findById(1L);
-        verify(userRepository, times(1)).delete(testUser);
-        // Remove deleteById verification since it's not used
+        // Assert - a single set-based DELETE, the row is never loaded; its old age and email still reach the listeners
+        verify(userRepository, times(1)).deleteUserById(1L);
+        verify(userRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof UserChangedEvent changed
+                && changed.getAgeDelta().equals(Map.of(30, -1))
+                && "old@example.com".equals(changed.getPreviousEmail())));
     }
 
     @Test
     void deleteUser_ShouldThrowException_WhenUserNotFound() {
         // Arrange
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.deleteUserById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
             userService.deleteUser(1L);
         });
 
         assertEquals("User not found", exception.getMessage());
-        verify(userRepository, times(1)).findById(1L);
-        verify(userRepository, never()).delete(any(User.class));
+        verify(userRepository, times(1)).deleteUserById(1L);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void deleteUser_ShouldThrowVersionMismatch_WhenUserExistsWithOtherVersion() {
+        // Arrange
+        when(userRepository.deleteUserByIdAndVersionIn(1L, Set.of(3L))).thenReturn(Optional.empty());
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(VersionMismatchException.class, () -> userService.deleteUser(1L, IfMatch.version(3L)));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -106,7 +153,38 @@ public class UserServiceTest {
         });
 
         assertEquals("User not found", exception.getMessage());
-        verify(userRepository, never()).findById(any());
-        verify(userRepository, never()).delete(any(User.class));
+        verify(userRepository, never()).deleteUserById(any());
+    }
+
+    @Test
+    void updateAndPatch_ShouldRejectAnEmailHeldByAQueuedWriteBehindUser() {
+        UserWriteBehind writer = mock(UserWriteBehind.class);
+        when(writeBehind.getIfAvailable()).thenReturn(writer);
+        when(writer.isReserved("queued@example.com")).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        assertThrows(DuplicateEmailException.class,
+                () -> userService.updateUser(1L, new User(null, "John Doe", "queued@example.com", 30), null));
+        assertThrows(DuplicateEmailException.class,
+                () -> userService.patchUser(1L, new User(null, null, "queued@example.com", null), null));
+
+        verify(userRepository, never()).updateUserById(any(), any(), any(), any());
+        verify(userRepository, never()).flush();
+        assertEquals("john.doe@example.com", testUser.getEmail());
+    }
+
+    @Test
+    void createUsers_ShouldRejectReservedEmails_AndInsertTheRest() {
+        User queued = new User(null, "Queued", "queued@example.com", 30);
+        User fresh = new User(null, "Fresh", "fresh@example.com", 31);
+        when(userRepository.findExistingEmails(any())).thenReturn(List.of());
+
+        List<UserBatchResult> results = userService.createUsers(List.of(queued, fresh), "queued@example.com"::equals);
+
+        assertEquals(UserBatchResult.REJECTED, results.get(0).getStatus());
+        assertEquals("Email already exists", results.get(0).getMessage());
+        assertEquals(UserBatchResult.CREATED, results.get(1).getStatus());
+        verify(userRepository).findExistingEmails(List.of("fresh@example.com"));
+        verify(userRepository).saveAll(List.of(fresh));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.QA.demo.service;
+
+import com.QA.demo.model.User;
+import com.QA.demo.model.UserStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:statsdb;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+public class UserStatisticsTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserStatistics userStatistics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void stats_ShouldFollowEveryWriteWithoutRecomputing() {
+        User first = userService.createUser(new User(null, "Stats One", "stats-one@example.com", 20));
+        User second = userService.createUser(new User(null, "Stats Two", "stats-two@example.com", 30));
+        userService.createUsers(List.of(
+                new User(null, "Stats Three", "stats-three@example.com", 30),
+                new User(null, "Stats Four", "stats-four@example.com", 40)));
+
+        userService.updateUser(first.getId(), new User(null, "Stats One", "stats-one@example.com", 21));
+        userService.patchUser(second.getId(), new User(null, null, null, 50), null);
+        userService.deleteUser(first.getId());
+
+        // Left: 50 (patched), 30 and 40 (batch)
+        UserStats stats = userService.getStats();
+        assertEquals(3, stats.getTotal());
+        assertEquals(30, stats.getMinAge());
+        assertEquals(50, stats.getMaxAge());
+        assertEquals(40.0, stats.getMeanAge(), 1e-9);
+        assertEquals(Map.of(30, 1L, 40, 1L, 50, 1L), stats.getAgeHistogram());
+        assertEquals(List.of(30, 40, 50), List.copyOf(stats.getAgeHistogram().keySet()));
+
+        // Nothing drifted, so a recompute agrees with the counters
+        userStatistics.recompute();
+        UserStats recomputed = userService.getStats();
+        assertEquals(stats.getTotal(), recomputed.getTotal());
+        assertEquals(stats.getAgeHistogram(), recomputed.getAgeHistogram());
+        assertNotNull(recomputed.getRecomputedAt());
+
+        // Rows written behind the service's back only show up after the next recompute
+        jdbcTemplate.update("INSERT INTO users (id, name, email, age, version) VALUES (-1, 'Plain SQL', 'stats-sql@example.com', 10, 0)");
+        assertEquals(3, userService.getStats().getTotal());
+        userStatistics.recompute();
+        stats = userService.getStats();
+        assertEquals(4, stats.getTotal());
+        assertEquals(10, stats.getMinAge());
+        assertEquals(32.5, stats.getMeanAge(), 1e-9);
+    }
+}
@@ -0,0 +1,142 @@
+package com.QA.demo.service;
+
+import com.QA.demo.model.User;
+import com.QA.demo.model.UserBatchResult;
+import com.QA.demo.model.UserWriteStatus;
+import com.QA.demo.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserWriteBehindTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        // One queued user at a time, one user per batch
+        writeBehind = new UserWriteBehind(1, 1, Duration.ofMinutes(1), meterRegistry);
+        ReflectionTestUtils.setField(writeBehind, "userService", userService);
+        ReflectionTestUtils.setField(writeBehind, "userRepository", userRepository);
+        ReflectionTestUtils.setField(writeBehind, "userCache", new UserCache(100, Duration.ofMinutes(1)));
+        writeBehind.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.stop();
+    }
+
+    @Test
+    void submit_ShouldRejectWithQueueFull_WhenWriterCannotKeepUp() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            List<User> users = invocation.getArgument(0);
+            users.get(0).setId(1L);
+            return List.of(UserBatchResult.created(0, users.get(0)));
+        });
+
+        UserWriteStatus first = writeBehind.submit(new User(null, "First", "first@example.com", 20));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        // The writer holds the first user, the second fills the queue, the third has no room
+        UserWriteStatus second = writeBehind.submit(new User(null, "Second", "second@example.com", 21));
+        assertThrows(WriteQueueFullException.class,
+                () -> writeBehind.submit(new User(null, "Third", "third@example.com", 22)));
+
+        assertEquals(1, writeBehind.getQueueDepth());
+        assertEquals(1.0, meterRegistry.get("user.write_behind.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("user.write_behind.requests").tag("outcome", "queue_full").counter().count());
+        assertEquals(UserWriteStatus.PENDING, writeBehind.getStatus(first.getTrackingId()).orElseThrow().getStatus());
+
+        release.countDown();
+        assertEquals(UserWriteStatus.CREATED, awaitWrite(first.getTrackingId()).getStatus());
+        assertEquals(UserWriteStatus.CREATED, awaitWrite(second.getTrackingId()).getStatus());
+
+        // A rejected user's email is not held back
+        doAnswer(invocation -> List.of(UserBatchResult.created(0, invocation.<List<User>>getArgument(0).get(0))))
+                .when(userService).createUsers(anyList());
+        UserWriteStatus third = writeBehind.submit(new User(null, "Third", "third@example.com", 22));
+        assertEquals(UserWriteStatus.CREATED, awaitWrite(third.getTrackingId()).getStatus());
+    }
+
+    @Test
+    void submit_ShouldRejectDuplicate_WhileFirstIsStillQueued() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return List.of(UserBatchResult.created(0, invocation.<List<User>>getArgument(0).get(0)));
+        });
+
+        writeBehind.submit(new User(null, "First", "same@example.com", 20));
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> writeBehind.submit(new User(null, "Second", "same@example.com", 21)));
+        assertEquals("Email already exists", exception.getMessage());
+        release.countDown();
+    }
+
+    @Test
+    void write_ShouldFallBackToSingleInserts_WhenTheBatchFails() throws Exception {
+        when(userService.createUsers(anyList())).thenThrow(new RuntimeException("Email already exists"));
+        when(userService.createUser(any(User.class))).thenThrow(new RuntimeException("Email already exists"));
+
+        UserWriteStatus status = writeBehind.submit(new User(null, "Taken", "taken@example.com", 20));
+
+        UserWriteStatus written = awaitWrite(status.getTrackingId());
+        assertEquals(UserWriteStatus.FAILED, written.getStatus());
+        assertEquals("Email already exists", written.getMessage());
+        assertEquals(1.0, meterRegistry.get("user.write_behind.writes").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void write_ShouldFailTheBatchWithoutRetrying_WhenItFailsAfterTheInserts() throws Exception {
+        // Committed, but the results do not line up with the batch
+        when(userService.createUsers(anyList())).thenReturn(List.of());
+
+        UserWriteStatus status = writeBehind.submit(new User(null, "Lost", "lost@example.com", 20));
+
+        UserWriteStatus written = awaitWrite(status.getTrackingId());
+        assertEquals(UserWriteStatus.FAILED, written.getStatus());
+        assertTrue(written.getMessage().startsWith("Write failed"), written.getMessage());
+        assertFalse(writeBehind.isReserved("lost@example.com"));
+        verify(userService, never()).createUser(any(User.class));
+    }
+
+    private UserWriteStatus awaitWrite(String trackingId) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            UserWriteStatus status = writeBehind.getStatus(trackingId).orElseThrow();
+            if (!UserWriteStatus.PENDING.equals(status.getStatus())) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Write " + trackingId + " still pending");
+    }
+}